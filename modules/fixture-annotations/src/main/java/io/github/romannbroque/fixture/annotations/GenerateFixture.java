@@ -26,6 +26,16 @@ import java.lang.annotation.Target;
  *     <li>Or any external class, as long as it is correctly referenced via {@link #dataModelClass()}.</li>
  * </ul>
  *
+ * <h3>Records</h3>
+ * <ul>
+ *     <li>When the data model is a record, the fixture holds its components itself and only creates a model when
+ *         {@code getModel()} or {@code build(DataModel model)} needs one. Its default values come from
+ *         {@code buildValid()}; without it, the components start with the Java default values.</li>
+ *     <li>When the entity is a record and {@link #constructEntity()} is set, the fixture calls the canonical
+ *         constructor of the entity directly instead of {@code build(DataModel model)}. Each component must match a
+ *         data model field of the same name and type. The data model may even be the entity record itself.</li>
+ * </ul>
+ *
  * <h3>Optional Methods</h3>
  * The following static methods can optionally be provided in the annotated class:
  * <ul>
@@ -69,12 +79,16 @@ import java.lang.annotation.Target;
  *
  * <h3>Important Rules</h3>
  * <ul>
- *     <li>{@code build()} is mandatory.</li>
+ *     <li>{@code build()} is mandatory, unless {@link #constructEntity()} is set.</li>
  *     <li>{@code buildValid()} is recommended but not required.</li>
  *     <li>{@code buildInvalid()} is entirely optional.</li>
  * </ul>
+ *
+ * <p>
+ * The annotation is retained in class files so that Gradle can process it incrementally:
+ * changing a dataset only regenerates its own fixture.
  */
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target(ElementType.TYPE)
 public @interface GenerateFixture {
 
@@ -94,4 +108,129 @@ public @interface GenerateFixture {
    * @return The data model class.
    */
   Class<?> dataModelClass();
+
+  /**
+   * Builds the entity by calling its canonical constructor directly, instead of the {@code build(DataModel model)}
+   * method of the annotated class, which is then optional and ignored. The entity must be a record whose canonical
+   * constructor is accessible from the package of the annotated class, and each of its components must match a data
+   * model field of the same name and type. Otherwise, the processor reports a compilation error.
+   *
+   * @return {@code true} to construct the record entity directly; {@code false} by default.
+   */
+  boolean constructEntity() default false;
+
+  /**
+   * Builds the default model only once per fixture class, then gives each new fixture a field-by-field copy of it.
+   * This avoids running {@code buildValid()} for every {@code defaultFixture()} call, which pays off when it computes
+   * expensive defaults (nested objects, parsed dates, loaded resources).
+   *
+   * <p>
+   * Only the fields declared by the data model whose type is known to be immutable are copied: primitives and their
+   * wrappers, strings, enums, records, {@code java.time} types, {@code BigDecimal}, {@code BigInteger} and
+   * {@code UUID}. The copy is created with the default constructor of the data model, whose field initializers still
+   * run and give each fixture its own value of the other fields: expensive defaults should be set in
+   * {@code buildValid()}. Since that value would not be the one set by {@code buildValid()}, a data model with
+   * {@code buildValid()} and a field of another type, such as a collection or a {@code Date}, is reported as a
+   * compilation error.
+   *
+   * @return {@code true} to copy a prototype default model instead of rebuilding it; {@code false} by default.
+   */
+  boolean prototypeModel() default false;
+
+  /**
+   * Computes the default value of a field only when it is needed, instead of when the fixture is created.
+   * A field has a lazy default when the annotated class provides a static {@code default<Field>()} method returning
+   * its value, e.g. {@code defaultAddress()} for the {@code address} field. The method is called when the fixture is
+   * built or when its value is read, and never if the field was overridden with {@code with<Field>()} or
+   * {@code without<Field>()}, or if a custom model was given.
+   *
+   * <p>
+   * The field must not compute the same value in its initializer, otherwise it is still computed for every fixture.
+   *
+   * @return {@code true} to compute the defaults provided by {@code default<Field>()} methods lazily;
+   *     {@code false} by default.
+   */
+  boolean lazyDefaults() default false;
+
+  /**
+   * Builds the default entity only once, then returns the same shared instance from every {@code buildDefault()}
+   * call. When the annotated class provides {@code buildInvalid()}, the fixture also gets a static
+   * {@code buildInvalid()} returning a shared invalid entity. Both are built lazily, on first use, in a thread-safe
+   * way.
+   *
+   * <p>
+   * Sharing an entity is only safe when it is immutable. The processor checks it on a best-effort basis: a record, or
+   * a class whose fields, including inherited ones, are all final. Otherwise it emits a compilation warning. Fields
+   * with a {@code @Sequence} or a lazy default are evaluated once, so the shared entity always holds the same value.
+   * {@code defaultFixture()} and {@code invalidFixture()} still create new fixtures and entities.
+   *
+   * @return {@code true} to share the default and invalid entities; {@code false} by default.
+   */
+  boolean cacheDefault() default false;
+
+  /**
+   * Generates a nested {@code RowWriter} in the fixture, exporting the data model fields of fixtures as JSON Lines or
+   * CSV rows into a {@link java.nio.channels.WritableByteChannel}, such as a {@code FileChannel}. The writer encodes
+   * each field directly into a reused buffer, flushed to the channel when full, so it runs in constant memory
+   * whatever the number of rows.
+   *
+   * <p>
+   * Integral, boolean and string values are encoded without intermediate objects. Floating-point values are encoded
+   * from their {@code toString()}, and other objects, such as dates or enums, as the string of their
+   * {@code toString()}. Static and final fields, such as constants, are not exported.
+   *
+   * @return {@code true} to generate the row writer; {@code false} by default.
+   */
+  boolean rowWriter() default false;
+
+  /**
+   * Generates a nested {@code FixtureSnapshot} in the fixture, storing the data model values of many fixtures in a
+   * compact binary file. The file is written once, for instance by the first test JVM, then later runs map it in
+   * memory and decode each model only when it is used, so opening it costs milliseconds whatever its size.
+   *
+   * <p>
+   * The layout is derived from the assignable fields of the data model. A file written for other field names or
+   * types is rejected when opened. Supported types are primitives and their wrappers, strings, enums,
+   * {@code BigDecimal}, {@code BigInteger}, {@code LocalDate}, {@code LocalTime}, {@code LocalDateTime},
+   * {@code Instant} and {@code UUID}; any other field type is reported as a compilation error.
+   *
+   * @return {@code true} to generate the snapshot codec; {@code false} by default.
+   */
+  boolean snapshot() default false;
+
+  /**
+   * Generates a static {@code variants()} method in the fixture, declaring candidate values per field and streaming
+   * the fixtures combining them, for instance as the {@code @MethodSource} of a parameterized test. The cartesian
+   * product is enumerated lazily, one new fixture per combination, and can be reduced to the variants covering every
+   * pair, or every combination of n fields, of candidates.
+   *
+   * @return {@code true} to generate the variants API; {@code false} by default.
+   */
+  boolean variants() default false;
+
+  /**
+   * Generates a {@code getX()} method per data model field. Fixtures that are only customized and built can skip
+   * them, to load smaller classes. The {@code -Afixture.getters=false} processor option skips them for every dataset.
+   *
+   * @return {@code false} to skip the getters; {@code true} by default.
+   */
+  boolean getters() default true;
+
+  /**
+   * Generates a {@code withoutX()} method per non-primitive data model field, setting it to {@code null}.
+   * {@code withX(null)} has the same effect. The {@code -Afixture.withoutMethods=false} processor option skips them
+   * for every dataset.
+   *
+   * @return {@code false} to skip the {@code without} methods; {@code true} by default.
+   */
+  boolean withoutMethods() default true;
+
+  /**
+   * Emits a compact fixture: no Javadoc in the generated source, and no static bulk methods ({@code buildMany},
+   * {@code fillInto}, {@code stream} and {@code parallelStream}). {@code reset()} and {@code FixtureArena} are kept.
+   * The {@code -Afixture.compact=true} processor option emits every fixture in compact mode.
+   *
+   * @return {@code true} to emit a compact fixture; {@code false} by default.
+   */
+  boolean compact() default false;
 }
@@ -0,0 +1,44 @@
+package io.github.romannbroque.fixture.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Draws a random date between {@link #from()} (inclusive) and {@link #to()} (exclusive) when the generated fixture is
+ * randomized with {@code randomize(SplittableRandom)}.
+ *
+ * <p>
+ * Supported on {@code LocalDate} fields, drawn by day, and on {@code LocalDateTime} and {@code Instant} fields, drawn
+ * by second in UTC. Both bounds are ISO dates, such as {@code 2024-01-31}, checked at compile time.
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * public static class DataModel {
+ *     @RandomDate(from = "1950-01-01", to = "2005-01-01")
+ *     public LocalDate birthDate = LocalDate.of(1990, 1, 1);
+ * }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface RandomDate {
+
+  /**
+   * The first date of the window.
+   *
+   * @return The inclusive lower bound, as an ISO date.
+   */
+  String from();
+
+  /**
+   * The date following the window, which must be after {@link #from()}.
+   *
+   * @return The exclusive upper bound, as an ISO date.
+   */
+  String to();
+}
@@ -0,0 +1,33 @@
+package io.github.romannbroque.fixture.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Draws a random constant of an enum field when the generated fixture is randomized with
+ * {@code randomize(SplittableRandom)}.
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * public static class DataModel {
+ *     @RandomEnum({"ACTIVE", "SUSPENDED"})
+ *     public Status status = Status.ACTIVE;
+ * }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface RandomEnum {
+
+  /**
+   * The names of the constants that can be drawn, all checked at compile time.
+   *
+   * @return The constant names; empty by default, to draw any constant of the enum.
+   */
+  String[] value() default {};
+}
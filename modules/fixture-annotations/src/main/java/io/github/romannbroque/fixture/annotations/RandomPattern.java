@@ -0,0 +1,42 @@
+package io.github.romannbroque.fixture.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Draws a random string matching a pattern when the generated fixture is randomized with
+ * {@code randomize(SplittableRandom)}. Supported on {@code String} fields.
+ *
+ * <p>
+ * The pattern is a small subset of the regular expression syntax, compiled into plain character code at build time:
+ * <ul>
+ *     <li>Literal characters, with {@code \} escaping a special character.</li>
+ *     <li>Character classes of characters and ranges, such as {@code [A-Z0-9_]}.</li>
+ *     <li>{@code \d} for a digit, {@code \w} for a letter, a digit or {@code _}.</li>
+ *     <li>Quantifiers {@code {n}}, {@code {min,max}} and {@code ?} after a character or a class.</li>
+ * </ul>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * public static class DataModel {
+ *     @RandomPattern("FR[0-9]{2}-[A-Z]{3,5}")
+ *     public String reference = "FR00-ABC";
+ * }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface RandomPattern {
+
+  /**
+   * The pattern of the drawn strings.
+   *
+   * @return The pattern.
+   */
+  String value();
+}
@@ -0,0 +1,44 @@
+package io.github.romannbroque.fixture.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Draws a random number between {@link #min()} (inclusive) and {@link #max()} (exclusive) when the generated fixture
+ * is randomized with {@code randomize(SplittableRandom)}.
+ *
+ * <p>
+ * Supported on {@code int}, {@code long}, {@code short}, {@code byte}, {@code double} and {@code float} fields, and on
+ * their wrapper types. Primitive fields are drawn without boxing. The bounds must fit the type of the field.
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * public static class DataModel {
+ *     @RandomRange(min = 18, max = 100)
+ *     public int age = 30;
+ * }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface RandomRange {
+
+  /**
+   * The lowest value that can be drawn.
+   *
+   * @return The inclusive lower bound; {@code 0} by default.
+   */
+  long min() default 0;
+
+  /**
+   * The bound of the values that can be drawn, which must be greater than {@link #min()}.
+   *
+   * @return The exclusive upper bound.
+   */
+  long max();
+}
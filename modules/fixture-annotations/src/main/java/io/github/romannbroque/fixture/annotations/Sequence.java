@@ -0,0 +1,59 @@
+package io.github.romannbroque.fixture.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gives a unique default value to a data model field, such as an email or an external id, even when fixtures are
+ * created concurrently by parallel tests or virtual threads.
+ *
+ * <p>
+ * Each generated fixture class owns one sequence per annotated field. Threads reserve blocks of
+ * {@link #blockSize()} numbers from a lock-free counter and then number their fixtures from their own block, so the
+ * values are unique without contention, but not consecutive across threads. A value is only drawn when the fixture
+ * is built or the field is read, and never when the field is overridden or a custom model is used.
+ *
+ * <p>
+ * Supported on {@code String} fields, formatted with {@link #value()}, and on {@code int}, {@code long},
+ * {@code Integer} and {@code Long} fields.
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * public static class DataModel {
+ *     @Sequence("user-%d@corp.com")
+ *     public String email;
+ * }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface Sequence {
+
+  /**
+   * The template of the values of a {@code String} field, where {@code %d} is replaced by the sequence number and
+   * {@code %%} stands for {@code %}. Numeric fields only accept the default template.
+   *
+   * @return The value template; {@code "%d"} by default.
+   */
+  String value() default "%d";
+
+  /**
+   * The first number of the sequence.
+   *
+   * @return The first sequence number; {@code 1} by default.
+   */
+  long start() default 1;
+
+  /**
+   * The number of values reserved at once by a thread.
+   * Larger blocks reduce contention further, at the cost of bigger gaps between the values of different threads.
+   *
+   * @return The size of the blocks reserved by each thread; {@code 64} by default.
+   */
+  int blockSize() default 64;
+}
@@ -9,6 +9,10 @@
  * fixture class, making it easier to create and manipulate entities in tests.
  *
  * <p>
+ * The {@code @Random*} annotations declare how the fields of a data model are drawn when the generated fixture is
+ * randomized with a seeded {@code SplittableRandom}.
+ *
+ * <p>
  * The {@code DataSetDefinition} interface defines the contract
  * that any dataset provider must follow, ensuring they provide a valid default data model and a method
  * to build the actual entity from the model.
@@ -0,0 +1,145 @@
+package io.github.romannbroque.fixture.benchmarks;
+
+import io.github.romannbroque.fixture.benchmarks.samples.Object5;
+import io.github.romannbroque.fixture.benchmarks.samples.Object500;
+import io.github.romannbroque.fixture.benchmarks.samples.Object500DataSet;
+import io.github.romannbroque.fixture.benchmarks.samples.Object500Fixture;
+import io.github.romannbroque.fixture.benchmarks.samples.Object50;
+import io.github.romannbroque.fixture.benchmarks.samples.Object50DataSet;
+import io.github.romannbroque.fixture.benchmarks.samples.Object50Fixture;
+import io.github.romannbroque.fixture.benchmarks.samples.Object5DataSet;
+import io.github.romannbroque.fixture.benchmarks.samples.Object5Fixture;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Runtime cost of the fixtures generated for object-heavy data models of 5, 50 and 500 fields.
+ *
+ * <p>
+ * Run with {@code ./gradlew :fixture-benchmarks:jmh}; the {@code gc} profiler reports the bytes allocated per
+ * built entity next to the time per operation. The {@code reset} benchmarks report what restoring the defaults of
+ * a reused fixture allocates per entity in bulk builds: a copy of each list default, and no model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectFixtureBenchmark {
+
+  private String stringValue;
+  private LocalDate dateValue;
+  private BigDecimal decimalValue;
+  private List<String> listValue;
+  private Object5DataSet.DataModel model5;
+  private Object50DataSet.DataModel model50;
+  private Object500DataSet.DataModel model500;
+  private Object5Fixture fixture5;
+  private Object50Fixture fixture50;
+  private Object500Fixture fixture500;
+
+  @Setup
+  public void setUp() {
+    stringValue = "value";
+    dateValue = LocalDate.of(2024, 2, 29);
+    decimalValue = new BigDecimal("42.50");
+    listValue = List.of("tag");
+    model5 = Object5DataSet.buildValid();
+    model50 = Object50DataSet.buildValid();
+    model500 = Object500DataSet.buildValid();
+    fixture5 = Object5Fixture.defaultFixture();
+    fixture50 = Object50Fixture.defaultFixture();
+    fixture500 = Object500Fixture.defaultFixture();
+  }
+
+  @Benchmark
+  public Object5 buildDefault5() {
+    return Object5Fixture.buildDefault();
+  }
+
+  @Benchmark
+  public Object50 buildDefault50() {
+    return Object50Fixture.buildDefault();
+  }
+
+  @Benchmark
+  public Object500 buildDefault500() {
+    return Object500Fixture.buildDefault();
+  }
+
+  @Benchmark
+  public Object5 withChain5() {
+    return Object5Fixture.defaultFixture()
+        .withF0(stringValue).withF1(dateValue).withF2(decimalValue).withF3(listValue).withF4(stringValue)
+        .withF0(stringValue).withF1(dateValue).withF2(decimalValue).withF3(listValue).withF4(stringValue)
+        .build();
+  }
+
+  @Benchmark
+  public Object50 withChain50() {
+    return Object50Fixture.defaultFixture()
+        .withF0(stringValue).withF1(dateValue).withF2(decimalValue).withF3(listValue).withF4(stringValue)
+        .withF5(dateValue).withF6(decimalValue).withF7(listValue).withF8(stringValue).withF9(dateValue)
+        .build();
+  }
+
+  @Benchmark
+  public Object500 withChain500() {
+    return Object500Fixture.defaultFixture()
+        .withF0(stringValue).withF1(dateValue).withF2(decimalValue).withF3(listValue).withF4(stringValue)
+        .withF5(dateValue).withF6(decimalValue).withF7(listValue).withF8(stringValue).withF9(dateValue)
+        .build();
+  }
+
+  @Benchmark
+  public Object5 withModel5() {
+    return Object5Fixture.withModel(model5).build();
+  }
+
+  @Benchmark
+  public Object50 withModel50() {
+    return Object50Fixture.withModel(model50).build();
+  }
+
+  @Benchmark
+  public Object500 withModel500() {
+    return Object500Fixture.withModel(model500).build();
+  }
+
+  @Benchmark
+  public Object5 invalidFixture5() {
+    return Object5Fixture.invalidFixture().build();
+  }
+
+  @Benchmark
+  public Object50 invalidFixture50() {
+    return Object50Fixture.invalidFixture().build();
+  }
+
+  @Benchmark
+  public Object500 invalidFixture500() {
+    return Object500Fixture.invalidFixture().build();
+  }
+
+  @Benchmark
+  public Object5Fixture reset5() {
+    return fixture5.reset();
+  }
+
+  @Benchmark
+  public Object50Fixture reset50() {
+    return fixture50.reset();
+  }
+
+  @Benchmark
+  public Object500Fixture reset500() {
+    return fixture500.reset();
+  }
+}
@@ -0,0 +1,162 @@
+package io.github.romannbroque.fixture.benchmarks;
+
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive5;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive500;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive500DataSet;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive500Fixture;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive50;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive50DataSet;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive50Fixture;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive5DataSet;
+import io.github.romannbroque.fixture.benchmarks.samples.Primitive5Fixture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Runtime cost of the fixtures generated for primitive-heavy data models of 5, 50 and 500 fields.
+ *
+ * <p>
+ * Run with {@code ./gradlew :fixture-benchmarks:jmh}; the {@code gc} profiler reports the bytes allocated per
+ * built entity next to the time per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrimitiveFixtureBenchmark {
+
+  private static final int BULK_SIZE = 1_000;
+  private static final int PARALLEL_SIZE = 100_000;
+
+  private int intValue;
+  private long longValue;
+  private double doubleValue;
+  private boolean booleanValue;
+  private Primitive5DataSet.DataModel model5;
+  private Primitive50DataSet.DataModel model50;
+  private Primitive500DataSet.DataModel model500;
+
+  @Setup
+  public void setUp() {
+    intValue = 42;
+    longValue = 42L;
+    doubleValue = 42.5;
+    booleanValue = true;
+    model5 = Primitive5DataSet.buildValid();
+    model50 = Primitive50DataSet.buildValid();
+    model500 = Primitive500DataSet.buildValid();
+  }
+
+  @Benchmark
+  public Primitive5 buildDefault5() {
+    return Primitive5Fixture.buildDefault();
+  }
+
+  @Benchmark
+  public Primitive50 buildDefault50() {
+    return Primitive50Fixture.buildDefault();
+  }
+
+  @Benchmark
+  public Primitive500 buildDefault500() {
+    return Primitive500Fixture.buildDefault();
+  }
+
+  @Benchmark
+  public Primitive5 withChain5() {
+    return Primitive5Fixture.defaultFixture()
+        .withF0(intValue).withF1(longValue).withF2(doubleValue).withF3(booleanValue).withF4(intValue)
+        .withF0(intValue).withF1(longValue).withF2(doubleValue).withF3(booleanValue).withF4(intValue)
+        .build();
+  }
+
+  @Benchmark
+  public Primitive50 withChain50() {
+    return Primitive50Fixture.defaultFixture()
+        .withF0(intValue).withF1(longValue).withF2(doubleValue).withF3(booleanValue).withF4(intValue)
+        .withF5(longValue).withF6(doubleValue).withF7(booleanValue).withF8(intValue).withF9(longValue)
+        .build();
+  }
+
+  @Benchmark
+  public Primitive500 withChain500() {
+    return Primitive500Fixture.defaultFixture()
+        .withF0(intValue).withF1(longValue).withF2(doubleValue).withF3(booleanValue).withF4(intValue)
+        .withF5(longValue).withF6(doubleValue).withF7(booleanValue).withF8(intValue).withF9(longValue)
+        .build();
+  }
+
+  @Benchmark
+  public Primitive5 withModel5() {
+    return Primitive5Fixture.withModel(model5).build();
+  }
+
+  @Benchmark
+  public Primitive50 withModel50() {
+    return Primitive50Fixture.withModel(model50).build();
+  }
+
+  @Benchmark
+  public Primitive500 withModel500() {
+    return Primitive500Fixture.withModel(model500).build();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BULK_SIZE)
+  public List<Primitive50> fixturePerEntity50() {
+    final List<Primitive50> entities = new ArrayList<>(BULK_SIZE);
+    for (int index = 0; index < BULK_SIZE; index++) {
+      entities.add(Primitive50Fixture.defaultFixture().withF0(index).build());
+    }
+    return entities;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BULK_SIZE)
+  public List<Primitive50> buildMany50() {
+    return Primitive50Fixture.buildMany(BULK_SIZE, (fixture, index) -> fixture.withF0(index));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BULK_SIZE)
+  public List<Primitive50> resetLoop50() {
+    final List<Primitive50> entities = new ArrayList<>(BULK_SIZE);
+    final Primitive50Fixture.FixtureArena arena = Primitive50Fixture.FixtureArena.current();
+    final Primitive50Fixture fixture = arena.acquire();
+    for (int index = 0; index < BULK_SIZE; index++) {
+      entities.add(fixture.reset().withF0(index).build());
+    }
+    arena.release(fixture);
+    return entities;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PARALLEL_SIZE)
+  public List<Primitive50> parallelStream50() {
+    return Primitive50Fixture.parallelStream(PARALLEL_SIZE, 42L,
+        (fixture, index, random) -> fixture.withF0(random.nextInt())).toList();
+  }
+
+  @Benchmark
+  public Primitive5 invalidFixture5() {
+    return Primitive5Fixture.invalidFixture().build();
+  }
+
+  @Benchmark
+  public Primitive50 invalidFixture50() {
+    return Primitive50Fixture.invalidFixture().build();
+  }
+
+  @Benchmark
+  public Primitive500 invalidFixture500() {
+    return Primitive500Fixture.invalidFixture().build();
+  }
+}
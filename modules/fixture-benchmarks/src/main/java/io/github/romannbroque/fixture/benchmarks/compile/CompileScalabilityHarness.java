@@ -0,0 +1,184 @@
+package io.github.romannbroque.fixture.benchmarks.compile;
+
+import io.github.romannbroque.fixture.processor.FixtureProcessor;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * Compile-time scalability harness for the fixture processor.
+ *
+ * <p>
+ * For every combination of a DataSet count N and a field count M, it compiles a synthetic project in memory through
+ * {@link JavaCompiler} with {@link FixtureProcessor} attached, and reports the wall time, the time spent in the
+ * processor and the bytes allocated by the compiling thread. Costs are also reported per DataSet: a cost per DataSet
+ * that grows with N reveals a nonlinear behavior of the processor. Nothing is written to disk.
+ *
+ * <p>
+ * Usage: {@code CompileScalabilityHarness [--datasets=100,1000,10000] [--fields=5,50] [--runs=3] [--csv=<path>]
+ * [-A<option>=<value>...]}. The {@code -A} arguments are passed to the compiler as processor options.
+ */
+public final class CompileScalabilityHarness {
+
+  private final List<String> compilerOptions;
+
+  private CompileScalabilityHarness(final List<String> processorOptions) {
+    this.compilerOptions = new ArrayList<>(List.of("-classpath", System.getProperty("java.class.path"), "-proc:full", "-nowarn"));
+    this.compilerOptions.addAll(processorOptions);
+  }
+
+  /**
+   * Runs the harness.
+   *
+   * @param args The command line arguments, see the class documentation.
+   * @throws IOException if the CSV report cannot be written.
+   */
+  public static void main(final String[] args) throws IOException {
+    int[] dataSetCounts = {100, 1_000, 10_000};
+    int[] fieldCounts = {5, 50};
+    int runs = 3;
+    Path csv = null;
+    final List<String> processorOptions = new ArrayList<>();
+    for (final String arg : args) {
+      if (arg.startsWith("--datasets=")) {
+        dataSetCounts = parseInts(arg.substring("--datasets=".length()));
+      } else if (arg.startsWith("--fields=")) {
+        fieldCounts = parseInts(arg.substring("--fields=".length()));
+      } else if (arg.startsWith("--runs=")) {
+        runs = Integer.parseInt(arg.substring("--runs=".length()));
+      } else if (arg.startsWith("--csv=")) {
+        csv = Path.of(arg.substring("--csv=".length()));
+      } else if (arg.startsWith("-A")) {
+        processorOptions.add(arg);
+      } else {
+        throw new IllegalArgumentException("Unknown argument: " + arg);
+      }
+    }
+
+    final CompileScalabilityHarness harness = new CompileScalabilityHarness(processorOptions);
+    harness.compile(new SyntheticProject(50, 5));
+
+    final List<Measurement> measurements = new ArrayList<>();
+    System.out.println(Measurement.HEADER);
+    for (final int fieldCount : fieldCounts) {
+      for (final int dataSetCount : dataSetCounts) {
+        final Measurement measurement = harness.measure(dataSetCount, fieldCount, runs);
+        measurements.add(measurement);
+        System.out.println(measurement.toRow());
+      }
+    }
+    if (csv != null) {
+      writeCsv(csv, measurements);
+    }
+  }
+
+  /**
+   * Compiles the same synthetic project several times and keeps the run with the median wall time.
+   */
+  private Measurement measure(final int dataSetCount, final int fieldCount, final int runs) {
+    final SyntheticProject project = new SyntheticProject(dataSetCount, fieldCount);
+    final List<Measurement> samples = new ArrayList<>(runs);
+    for (int run = 0; run < runs; run++) {
+      System.gc();
+      samples.add(compile(project));
+    }
+    samples.sort(Comparator.comparingLong(Measurement::wallNanos));
+    return samples.get(samples.size() / 2);
+  }
+
+  private Measurement compile(final SyntheticProject project) {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    final List<JavaFileObject> sources = project.sources();
+    final TimedProcessor processor = new TimedProcessor(new FixtureProcessor());
+    final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    try (InMemoryFileManager fileManager = new InMemoryFileManager(
+        compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8))) {
+      final JavaCompiler.CompilationTask task =
+          compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, sources);
+      task.setProcessors(List.of(processor));
+
+      final long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+      final long start = System.nanoTime();
+      final boolean success = task.call();
+      final long wallNanos = System.nanoTime() - start;
+      final long allocatedBytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+      if (!success) {
+        throw new IllegalStateException("Compilation of the synthetic project failed: " + errors(diagnostics));
+      }
+      return new Measurement(project.dataSetCount(), project.fieldCount(), wallNanos, processor.elapsedNanos(),
+          allocatedBytes, fileManager.outputBytes());
+    } catch (final IOException e) {
+      throw new IllegalStateException("Failed to close the in-memory file manager", e);
+    }
+  }
+
+  private static String errors(final DiagnosticCollector<JavaFileObject> diagnostics) {
+    return diagnostics.getDiagnostics().stream()
+        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        .limit(5)
+        .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+        .toList()
+        .toString();
+  }
+
+  private static int[] parseInts(final String values) {
+    return Arrays.stream(values.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+  }
+
+  private static void writeCsv(final Path csv, final List<Measurement> measurements) throws IOException {
+    if (csv.getParent() != null) {
+      Files.createDirectories(csv.getParent());
+    }
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+      writer.println("datasets,fields,wallNanos,processorNanos,allocatedBytes,outputBytes");
+      for (final Measurement measurement : measurements) {
+        writer.println(measurement.toCsv());
+      }
+    }
+  }
+
+  /**
+   * Result of the compilation of a synthetic project.
+   *
+   * @param dataSets       The number of DataSets.
+   * @param fields         The number of fields per DataSet.
+   * @param wallNanos      The wall time of the compilation.
+   * @param processorNanos The time spent in the fixture processor.
+   * @param allocatedBytes The bytes allocated by the compiling thread.
+   * @param outputBytes    The bytes of class files and generated sources produced.
+   */
+  private record Measurement(int dataSets, int fields, long wallNanos, long processorNanos, long allocatedBytes,
+                             long outputBytes) {
+
+    static final String HEADER = String.format(Locale.ROOT, "%9s %7s %11s %11s %11s %13s %13s",
+        "datasets", "fields", "wall ms", "proc ms", "alloc MB", "wall us/ds", "proc us/ds");
+
+    String toRow() {
+      return String.format(Locale.ROOT, "%9d %7d %11.1f %11.1f %11.1f %13.1f %13.1f",
+          dataSets, fields, wallNanos / 1e6, processorNanos / 1e6, allocatedBytes / 1e6,
+          wallNanos / 1e3 / dataSets, processorNanos / 1e3 / dataSets);
+    }
+
+    String toCsv() {
+      return dataSets + "," + fields + "," + wallNanos + "," + processorNanos + "," + allocatedBytes + ","
+          + outputBytes;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.github.romannbroque.fixture.benchmarks.compile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * File manager keeping every compiler output in memory: class files as well as the sources generated by the
+ * processor, which the compiler reads back in the next round. Nothing is written to disk.
+ */
+final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  private long outputBytes;
+
+  InMemoryFileManager(final StandardJavaFileManager fileManager) {
+    super(fileManager);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                                             final JavaFileObject.Kind kind, final FileObject sibling) {
+    return new InMemoryOutput(className, kind);
+  }
+
+  /**
+   * Returns the number of bytes written by the compiler and the processor.
+   *
+   * @return The total size of the outputs.
+   */
+  long outputBytes() {
+    return outputBytes;
+  }
+
+  private final class InMemoryOutput extends SimpleJavaFileObject {
+
+    private ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    InMemoryOutput(final String className, final Kind kind) {
+      super(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      content = new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          outputBytes += size();
+        }
+      };
+      return content;
+    }
+
+    @Override
+    public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+      return content.toString(StandardCharsets.UTF_8);
+    }
+  }
+}
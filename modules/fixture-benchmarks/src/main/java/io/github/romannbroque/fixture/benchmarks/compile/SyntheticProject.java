@@ -0,0 +1,91 @@
+package io.github.romannbroque.fixture.benchmarks.compile;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * Synthetic source set made of N DataSets with M fields each, every DataSet having its own entity.
+ * DataSets are spread over packages of {@value #DATASETS_PER_PACKAGE} to look like a real code base.
+ */
+final class SyntheticProject {
+
+  private static final int DATASETS_PER_PACKAGE = 500;
+  private static final String[] FIELD_TYPES = {"int", "String", "long", "java.time.LocalDate"};
+  private static final String[] FIELD_VALUES = {"%d", "\"value-%d\"", "%dL", "java.time.LocalDate.of(2000, 1, 1).plusDays(%d)"};
+
+  private final int dataSetCount;
+  private final int fieldCount;
+
+  SyntheticProject(final int dataSetCount, final int fieldCount) {
+    this.dataSetCount = dataSetCount;
+    this.fieldCount = fieldCount;
+  }
+
+  int dataSetCount() {
+    return dataSetCount;
+  }
+
+  int fieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * Creates the in-memory sources of the project.
+   *
+   * @return The source files, two per DataSet.
+   */
+  List<JavaFileObject> sources() {
+    final List<JavaFileObject> sources = new ArrayList<>(dataSetCount * 2);
+    for (int i = 0; i < dataSetCount; i++) {
+      final String packageName = "synthetic.p" + (i / DATASETS_PER_PACKAGE);
+      sources.add(source(packageName, "Entity" + i, entity(packageName, i)));
+      sources.add(source(packageName, "Entity" + i + "DataSet", dataSet(packageName, i)));
+    }
+    return sources;
+  }
+
+  private String entity(final String packageName, final int index) {
+    return "package " + packageName + ";\n\n"
+        + "public class Entity" + index + " {\n"
+        + "  private final Object model;\n\n"
+        + "  Entity" + index + "(final Object model) {\n"
+        + "    this.model = model;\n"
+        + "  }\n"
+        + "}\n";
+  }
+
+  private String dataSet(final String packageName, final int index) {
+    final String entity = "Entity" + index;
+    final StringBuilder source = new StringBuilder(256 + 64 * fieldCount)
+        .append("package ").append(packageName).append(";\n\n")
+        .append("import io.github.romannbroque.fixture.annotations.GenerateFixture;\n\n")
+        .append("@GenerateFixture(entityClass = ").append(entity).append(".class, dataModelClass = ")
+        .append(entity).append("DataSet.DataModel.class)\n")
+        .append("public class ").append(entity).append("DataSet {\n\n")
+        .append("  public static class DataModel {\n");
+    for (int f = 0; f < fieldCount; f++) {
+      final int kind = f % FIELD_TYPES.length;
+      source.append("    public ").append(FIELD_TYPES[kind]).append(" f").append(f).append(" = ")
+          .append(String.format(FIELD_VALUES[kind], f)).append(";\n");
+    }
+    return source.append("  }\n\n")
+        .append("  public static ").append(entity).append(" build(final DataModel model) {\n")
+        .append("    return new ").append(entity).append("(model);\n")
+        .append("  }\n")
+        .append("}\n")
+        .toString();
+  }
+
+  private static JavaFileObject source(final String packageName, final String simpleName, final String content) {
+    final URI uri = URI.create("string:///" + packageName.replace('.', '/') + "/" + simpleName + ".java");
+    return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return content;
+      }
+    };
+  }
+}
@@ -0,0 +1,67 @@
+package io.github.romannbroque.fixture.benchmarks.compile;
+
+import java.util.Set;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Processor decorator measuring the time spent in the decorated processor, initialization included.
+ */
+final class TimedProcessor implements Processor {
+
+  private final Processor delegate;
+  private long elapsedNanos;
+
+  TimedProcessor(final Processor delegate) {
+    this.delegate = delegate;
+  }
+
+  long elapsedNanos() {
+    return elapsedNanos;
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return delegate.getSupportedOptions();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return delegate.getSupportedAnnotationTypes();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return delegate.getSupportedSourceVersion();
+  }
+
+  @Override
+  public void init(final ProcessingEnvironment processingEnv) {
+    final long start = System.nanoTime();
+    delegate.init(processingEnv);
+    elapsedNanos += System.nanoTime() - start;
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    final long start = System.nanoTime();
+    try {
+      return delegate.process(annotations, roundEnv);
+    } finally {
+      elapsedNanos += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public Iterable<? extends Completion> getCompletions(final Element element, final AnnotationMirror annotation,
+                                                       final ExecutableElement member, final String userText) {
+    return delegate.getCompletions(element, annotation, member, userText);
+  }
+}
@@ -1,29 +1,43 @@
 package io.github.romannbroque.fixture.processor;
 
 import io.github.romannbroque.fixture.annotations.GenerateFixture;
+import io.github.romannbroque.fixture.annotations.RandomDate;
+import io.github.romannbroque.fixture.annotations.RandomEnum;
+import io.github.romannbroque.fixture.annotations.RandomPattern;
+import io.github.romannbroque.fixture.annotations.RandomRange;
+import io.github.romannbroque.fixture.annotations.Sequence;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 /**
  * Utility class responsible for parsing the {@link GenerateFixture} annotation
  * and extracting relevant metadata from annotated elements.
+ * It also parses the {@code @Random*} and {@code @Sequence} annotations of the data model fields.
  */
 final class AnnotationParser {
 
-  private final ProcessingEnvironment processingEnv;
+  private final TypeMetadataCache metadataCache;
 
   /**
-   * Constructs the annotation parser with the provided processing environment.
+   * Constructs the annotation parser on top of the per-compilation type metadata cache.
    *
-   * @param processingEnv The processing environment provided by the annotation processor.
+   * @param metadataCache The cache used to resolve the annotation type.
    */
-  AnnotationParser(final ProcessingEnvironment processingEnv) {
-    this.processingEnv = processingEnv;
+  AnnotationParser(final TypeMetadataCache metadataCache) {
+    this.metadataCache = metadataCache;
   }
 
   /**
@@ -34,17 +48,207 @@ final class AnnotationParser {
    * @throws IllegalStateException if the annotation is missing or malformed.
    */
   FixtureAnnotation parseGenerateFixtureAnnotation(final TypeElement element) {
+    final TypeMetadata annotationType = metadataCache.find(GenerateFixture.class.getCanonicalName());
     for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
-      if (mirror.getAnnotationType().toString().equals(GenerateFixture.class.getCanonicalName())) {
+      if (annotationType != null && mirror.getAnnotationType().asElement().equals(annotationType.element())) {
         final Map<? extends ExecutableElement, ? extends AnnotationValue> values = mirror.getElementValues();
         final String entityClassName = extractClassName(values, "entityClass");
         final String dataModelClassName = extractClassName(values, "dataModelClass");
-        return new FixtureAnnotation(entityClassName, dataModelClassName);
+        final boolean constructEntity = extractBoolean(values, "constructEntity");
+        final boolean prototypeModel = extractBoolean(values, "prototypeModel");
+        final boolean lazyDefaults = extractBoolean(values, "lazyDefaults");
+        final boolean cacheDefault = extractBoolean(values, "cacheDefault");
+        final boolean rowWriter = extractBoolean(values, "rowWriter");
+        final boolean snapshot = extractBoolean(values, "snapshot");
+        final boolean variants = extractBoolean(values, "variants");
+        final boolean getters = extractBoolean(values, "getters", true);
+        final boolean withoutMethods = extractBoolean(values, "withoutMethods", true);
+        final boolean compact = extractBoolean(values, "compact");
+        return new FixtureAnnotation(entityClassName, dataModelClassName, constructEntity, prototypeModel,
+            lazyDefaults, cacheDefault, rowWriter, snapshot, variants, getters, withoutMethods, compact);
       }
     }
     throw new IllegalStateException("@GenerateFixture not found on " + element.getSimpleName());
   }
 
+  /**
+   * Parses the {@code @Random*} annotation of a data model field, validated against the field type.
+   *
+   * @param field The field, or the record component, of the data model.
+   * @return The random spec of the field, or {@code null} if the field has no random annotation.
+   * @throws IllegalStateException if the field has several random annotations, or if the annotation is malformed or
+   *                               not supported for the type of the field.
+   */
+  RandomSpec parseRandomSpec(final Element field) {
+    final RandomRange range = field.getAnnotation(RandomRange.class);
+    final RandomPattern pattern = field.getAnnotation(RandomPattern.class);
+    final RandomEnum choice = field.getAnnotation(RandomEnum.class);
+    final RandomDate window = field.getAnnotation(RandomDate.class);
+    final int annotationCount = (range == null ? 0 : 1) + (pattern == null ? 0 : 1) + (choice == null ? 0 : 1)
+        + (window == null ? 0 : 1);
+    if (annotationCount == 0) {
+      return null;
+    }
+    if (annotationCount > 1) {
+      throw invalidRandomSpec(field, "only one @Random* annotation is allowed per field");
+    }
+    final TypeMirror type = field.asType();
+    if (range != null) {
+      return parseRange(field, type, range);
+    }
+    if (pattern != null) {
+      if (!type.toString().equals(String.class.getName())) {
+        throw invalidRandomSpec(field, "@RandomPattern is only supported on String fields");
+      }
+      try {
+        return RandomPatternParser.parse(pattern.value());
+      } catch (final IllegalArgumentException e) {
+        throw invalidRandomSpec(field, "invalid pattern '" + pattern.value() + "': " + e.getMessage());
+      }
+    }
+    if (choice != null) {
+      return parseChoice(field, type, choice);
+    }
+    return parseWindow(field, type, window);
+  }
+
+  /**
+   * Parses the {@code @Sequence} annotation of a data model field, validated against the field type.
+   *
+   * @param field The field, or the record component, of the data model.
+   * @return The sequence spec of the field, or {@code null} if the field has no sequence.
+   * @throws IllegalStateException if the template or the block size is invalid, or if the type is not supported.
+   */
+  SequenceSpec parseSequenceSpec(final Element field) {
+    final Sequence sequence = field.getAnnotation(Sequence.class);
+    if (sequence == null) {
+      return null;
+    }
+    if (sequence.blockSize() <= 0) {
+      throw invalidSequence(field, "the block size must be positive");
+    }
+    final String type = field.asType().toString();
+    if (type.equals(String.class.getName())) {
+      final String template = sequence.value();
+      final int placeholder = findPlaceholder(template);
+      if (placeholder < 0 || findPlaceholder(template.substring(placeholder + 2)) >= 0) {
+        throw invalidSequence(field, "the template '" + template + "' must contain exactly one %d");
+      }
+      final String prefix = template.substring(0, placeholder);
+      final String suffix = template.substring(placeholder + 2);
+      if (prefix.replace("%%", "").contains("%") || suffix.replace("%%", "").contains("%")) {
+        throw invalidSequence(field, "the template '" + template + "' only supports %d and %%");
+      }
+      return new SequenceSpec(prefix.replace("%%", "%"), suffix.replace("%%", "%"), sequence.start(),
+          sequence.blockSize());
+    }
+    if (!List.of("int", "long", "java.lang.Integer", "java.lang.Long").contains(type)) {
+      throw invalidSequence(field, "@Sequence is only supported on String, int and long fields");
+    }
+    if (!sequence.value().equals("%d")) {
+      throw invalidSequence(field, "a template is only supported on String fields");
+    }
+    return new SequenceSpec("", "", sequence.start(), sequence.blockSize());
+  }
+
+  private int findPlaceholder(final String template) {
+    for (int index = 0; index < template.length() - 1; index++) {
+      if (template.charAt(index) == '%') {
+        if (template.charAt(index + 1) == 'd') {
+          return index;
+        }
+        index++;
+      }
+    }
+    return -1;
+  }
+
+  private IllegalStateException invalidSequence(final Element field, final String reason) {
+    return new IllegalStateException("Invalid sequence of field '" + field.getSimpleName() + "' in "
+        + field.getEnclosingElement().getSimpleName() + ": " + reason + ".");
+  }
+
+  private RandomSpec parseRange(final Element field, final TypeMirror type, final RandomRange range) {
+    final long limit = switch (unboxedKind(type)) {
+      case BYTE -> Byte.MAX_VALUE + 1L;
+      case SHORT -> Short.MAX_VALUE + 1L;
+      case INT -> Integer.MAX_VALUE + 1L;
+      case LONG, DOUBLE, FLOAT -> Long.MAX_VALUE;
+      default -> throw invalidRandomSpec(field, "@RandomRange is only supported on numeric fields");
+    };
+    if (range.min() >= range.max()) {
+      throw invalidRandomSpec(field, "@RandomRange max must be greater than min");
+    }
+    if (range.min() < -limit || range.max() > limit) {
+      throw invalidRandomSpec(field, "@RandomRange bounds do not fit the type " + type);
+    }
+    return new RandomSpec.Range(range.min(), range.max());
+  }
+
+  private RandomSpec parseChoice(final Element field, final TypeMirror type, final RandomEnum choice) {
+    if (!(type instanceof DeclaredType declaredType) || declaredType.asElement().getKind() != ElementKind.ENUM) {
+      throw invalidRandomSpec(field, "@RandomEnum is only supported on enum fields");
+    }
+    final List<String> constants = new ArrayList<>();
+    for (final Element member : declaredType.asElement().getEnclosedElements()) {
+      if (member.getKind() == ElementKind.ENUM_CONSTANT) {
+        constants.add(member.getSimpleName().toString());
+      }
+    }
+    if (choice.value().length == 0) {
+      if (constants.isEmpty()) {
+        throw invalidRandomSpec(field, "the enum " + type + " has no constant");
+      }
+      return new RandomSpec.Choice(List.copyOf(constants));
+    }
+    for (final String constant : choice.value()) {
+      if (!constants.contains(constant)) {
+        throw invalidRandomSpec(field, "unknown constant '" + constant + "' of " + type);
+      }
+    }
+    return new RandomSpec.Choice(List.of(choice.value()));
+  }
+
+  private RandomSpec parseWindow(final Element field, final TypeMirror type, final RandomDate window) {
+    final LocalDate from;
+    final LocalDate to;
+    try {
+      from = LocalDate.parse(window.from());
+      to = LocalDate.parse(window.to());
+    } catch (final DateTimeParseException e) {
+      throw invalidRandomSpec(field, "@RandomDate bounds must be ISO dates: " + e.getMessage());
+    }
+    if (!to.isAfter(from)) {
+      throw invalidRandomSpec(field, "@RandomDate to must be after from");
+    }
+    final String typeName = type.toString();
+    if (typeName.equals("java.time.LocalDate")) {
+      return new RandomSpec.Window(from.toEpochDay(), to.toEpochDay());
+    }
+    if (typeName.equals("java.time.LocalDateTime") || typeName.equals("java.time.Instant")) {
+      return new RandomSpec.Window(from.atStartOfDay().toEpochSecond(ZoneOffset.UTC),
+          to.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+    }
+    throw invalidRandomSpec(field, "@RandomDate is only supported on LocalDate, LocalDateTime and Instant fields");
+  }
+
+  private TypeKind unboxedKind(final TypeMirror type) {
+    return switch (type.toString()) {
+      case "java.lang.Byte" -> TypeKind.BYTE;
+      case "java.lang.Short" -> TypeKind.SHORT;
+      case "java.lang.Integer" -> TypeKind.INT;
+      case "java.lang.Long" -> TypeKind.LONG;
+      case "java.lang.Double" -> TypeKind.DOUBLE;
+      case "java.lang.Float" -> TypeKind.FLOAT;
+      default -> type.getKind();
+    };
+  }
+
+  private IllegalStateException invalidRandomSpec(final Element field, final String reason) {
+    return new IllegalStateException("Invalid random value of field '" + field.getSimpleName() + "' in "
+        + field.getEnclosingElement().getSimpleName() + ": " + reason + ".");
+  }
+
   /**
    * Extracts a fully qualified class name from the annotation value map.
    *
@@ -64,4 +268,26 @@ final class AnnotationParser {
     }
     throw new IllegalStateException("Missing value for '" + key + "' in @GenerateFixture annotation.");
   }
+
+  /**
+   * Extracts a boolean attribute from the annotation value map.
+   *
+   * @param values The map of annotation element values.
+   * @param key    The name of the annotation attribute to extract.
+   * @return The attribute value, or {@code false} (the default of every boolean attribute) if it is not set.
+   */
+  private boolean extractBoolean(final Map<? extends ExecutableElement, ? extends AnnotationValue> values,
+                                 final String key) {
+    return extractBoolean(values, key, false);
+  }
+
+  private boolean extractBoolean(final Map<? extends ExecutableElement, ? extends AnnotationValue> values,
+                                 final String key, final boolean defaultValue) {
+    for (final var entry : values.entrySet()) {
+      if (entry.getKey().getSimpleName().toString().equals(key)) {
+        return (Boolean) entry.getValue().getValue();
+      }
+    }
+    return defaultValue;
+  }
 }
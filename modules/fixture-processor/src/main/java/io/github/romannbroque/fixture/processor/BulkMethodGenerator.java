@@ -0,0 +1,354 @@
+package io.github.romannbroque.fixture.processor;
+
+/**
+ * Code generator responsible for producing the reuse support of a fixture: the {@code reset()} method, the per-thread
+ * {@code FixtureArena}, and the static bulk methods {@code buildMany}, {@code fillInto}, {@code stream} and
+ * {@code parallelStream}.
+ *
+ * <p>
+ * Bulk methods reuse a single fixture and model, reset to the default values before each entity, so that building
+ * an entity only allocates the entity itself and its defaults of mutable types. Each entity gets its own instances of
+ * those, as with {@code defaultFixture().build()}. The entity must not keep a reference to the model it is built
+ * from.
+ */
+class BulkMethodGenerator {
+
+  private final ModelFieldGenerator fieldGenerator;
+
+  BulkMethodGenerator(final ModelFieldGenerator fieldGenerator) {
+    this.fieldGenerator = fieldGenerator;
+  }
+
+  /**
+   * Generates the bulk methods of the fixture, along with the reset method, the arena and the spliterator they rely
+   * on. A compact fixture only gets the reset method and the arena, which the other generated APIs rely on.
+   *
+   * @param out  The emitter used to write the generated code.
+   * @param spec The spec of the generated fixture.
+   */
+  void generateBulkMethods(final SourceEmitter out, final FixtureSpec spec) {
+    if (!spec.compact()) {
+      generateBuildMany(out, spec);
+      generateFillInto(out, spec);
+      generateStream(out, spec);
+      generateParallelStream(out, spec);
+    }
+    generateReset(out, spec);
+    generateFixtureArena(out, spec);
+    if (!spec.compact()) {
+      generateBulkSpliterator(out, spec);
+    }
+  }
+
+  private void generateBuildMany(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("    ",
+            "Builds entities in bulk, reusing a single fixture reset to its default values",
+            "before each entity. Each entity gets its own defaults of mutable types.",
+            "@param count The number of entities to build.",
+            "@param customizer Customizes the fixture of each entity, given its index.",
+            "@return The built entities.")
+        .append("    public static java.util.List<").append(spec.entitySimpleName())
+        .append("> buildMany(final int count,\n")
+        .append("            final java.util.function.ObjIntConsumer<").append(fixtureClassName)
+        .append("> customizer) {\n")
+        .append("        return fillInto(new java.util.ArrayList<>(count), count, customizer);\n")
+        .append("    }\n\n");
+  }
+
+  private void generateFillInto(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("    ",
+            "Adds entities built in bulk to a collection, reusing a single fixture reset to its",
+            "default values before each entity. Each entity gets its own defaults of mutable types.",
+            "@param target The collection to fill.",
+            "@param count The number of entities to build.",
+            "@param customizer Customizes the fixture of each entity, given its index.",
+            "@return The filled collection.")
+        .append("    public static <C extends java.util.Collection<? super ").append(spec.entitySimpleName())
+        .append(">> C fillInto(final C target,\n")
+        .append("            final int count, final java.util.function.ObjIntConsumer<").append(fixtureClassName)
+        .append("> customizer) {\n")
+        .append("        if (target instanceof java.util.ArrayList<?> list) {\n")
+        .append("            list.ensureCapacity(list.size() + count);\n")
+        .append("        }\n")
+        .append("        final ").append(fixtureClassName).append(" fixture = new ").append(fixtureClassName)
+        .append("();\n")
+        .append("        for (int index = 0; index < count; index++) {\n")
+        .append("            fixture.reset();\n")
+        .append("            customizer.accept(fixture, index);\n")
+        .append("            target.add(fixture.build());\n")
+        .append("        }\n")
+        .append("        return target;\n")
+        .append("    }\n\n");
+  }
+
+  private void generateStream(final SourceEmitter out, final FixtureSpec spec) {
+    out.javadoc("    ",
+            "Streams entities built lazily, reusing a single fixture reset to its default values",
+            "before each entity. Each entity gets its own defaults of mutable types.",
+            "@param count The number of entities to build.",
+            "@param customizer Customizes the fixture of each entity, given its index.",
+            "@return A sequential stream of the built entities.")
+        .append("    public static java.util.stream.Stream<").append(spec.entitySimpleName())
+        .append("> stream(final long count,\n")
+        .append("            final java.util.function.ObjLongConsumer<").append(spec.fixtureClassName())
+        .append("> customizer) {\n")
+        .append("        return java.util.stream.StreamSupport.stream(new BulkSpliterator(0L, count, false, 0L,\n")
+        .append("            (fixture, index, random) -> customizer.accept(fixture, index)), false);\n")
+        .append("    }\n\n");
+  }
+
+  /**
+   * Generates the parallel stream, along with the customizer interface receiving a random generator per entity.
+   * The generator of an entity is seeded from the stream seed and the entity index only, so the entities do not
+   * depend on how the range is split between the fork-join workers.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  private void generateParallelStream(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("    ",
+            "Customizes the fixture of an entity built in bulk, with a random generator dedicated",
+            "to the entity.")
+        .append("    @FunctionalInterface\n")
+        .append("    public interface SeededCustomizer {\n\n")
+        .javadoc("        ",
+            "Customizes the fixture of an entity.",
+            "@param fixture The fixture, reset to its default values.",
+            "@param index The index of the entity.",
+            "@param random A random generator seeded from the stream seed and the entity index.")
+        .append("        void accept(").append(fixtureClassName)
+        .append(" fixture, long index, java.util.SplittableRandom random);\n")
+        .append("    }\n\n");
+
+    out.javadoc("    ",
+            "Streams entities built in parallel, each worker reusing its own fixture reset to its",
+            "default values before each entity. Entity i only depends on the seed and on i, so the",
+            "stream is reproducible whatever the number of workers, as long as the customizer only",
+            "draws values from the given random.",
+            "@param count The number of entities to build.",
+            "@param seed The seed of the random generators.",
+            "@param customizer Customizes the fixture of each entity, given its index and random.",
+            "@return A parallel stream of the built entities, ordered by index.")
+        .append("    public static java.util.stream.Stream<").append(spec.entitySimpleName())
+        .append("> parallelStream(final long count,\n")
+        .append("            final long seed, final SeededCustomizer customizer) {\n")
+        .append("        return java.util.stream.StreamSupport.stream(\n")
+        .append("            new BulkSpliterator(0L, count, true, seed, customizer), true);\n")
+        .append("    }\n\n");
+  }
+
+  /**
+   * Generates the method restoring the default values of a fixture in place. Fields of immutable types are copied
+   * from a default snapshot built once per fixture class, and fields of copyable types get a copy of the snapshot
+   * value. Only when other fields remain does reset build a default model again, to read them from it, so that no
+   * fixture shares a mutable default with the snapshot or with another fixture. A fixture over a mutable model gets
+   * its own model back if a custom model was used, so the custom model is never written. Lazy defaults are marked as
+   * not overridden again, so they are computed again too.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  private void generateReset(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    final boolean recomputed = spec.fields().stream().anyMatch(field -> recomputedOnReset(spec, field));
+    out.append("    private static final class DefaultSnapshot {\n")
+        .append("        private static final ").append(fixtureClassName).append(" INSTANCE = new ")
+        .append(fixtureClassName).append("();\n")
+        .append("    }\n\n");
+
+    out.javadoc("    ",
+            "Restores the default values in place, without allocating a new fixture.",
+            "Defaults of immutable types are shared with a snapshot built once. Collections, maps,",
+            "arrays and dates of immutable elements are copied from it, which allocates the copy.",
+            "Lazy defaults are computed again when read.",
+            recomputed
+                ? "Other mutable defaults are read from a model built again on each reset: make them lazy."
+                : "No model is allocated.",
+            "@return This fixture.")
+        .append("    public ").append(fixtureClassName).append(" reset() {\n")
+        .append("        final ").append(fixtureClassName).append(" defaults = DefaultSnapshot.INSTANCE;\n");
+    if (recomputed) {
+      out.append("        final ").append(spec.dataModelSimpleName()).append(" fresh = ")
+          .append(fieldGenerator.defaultModelCall(spec)).append(";\n");
+    }
+    if (!spec.recordModel()) {
+      out.append("        this.model = ownModel;\n");
+    }
+    final String target = spec.recordModel() ? "this" : "ownModel";
+    final String source = spec.recordModel() ? "defaults" : "defaults.ownModel";
+    for (final FieldSpec field : spec.fields()) {
+      if (recomputedOnReset(spec, field)) {
+        out.append("        ").append(target).append(".").append(field.name())
+            .append(" = fresh.").append(field.name()).append(spec.recordModel() ? "();\n" : ";\n");
+      } else if (copiedOnReset(field)) {
+        out.append("        ").append(target).append(".").append(field.name()).append(" = ")
+            .append(fieldGenerator.copyExpression(field, source + "." + field.name())).append(";\n");
+      } else {
+        fieldGenerator.generateFieldCopy(out, field, target, source);
+      }
+    }
+    for (int word = 0; word < spec.overrideWordCount(); word++) {
+      out.append("        ").append(fieldGenerator.overrideWord(word)).append(" = 0L;\n");
+    }
+    for (int word = 0; word < spec.customizedWordCount(); word++) {
+      out.append("        ").append(fieldGenerator.customizedWord(word)).append(" = 0L;\n");
+    }
+    out.append("        return this;\n")
+        .append("    }\n\n");
+  }
+
+  /**
+   * Checks whether the default value of a field is copied from the snapshot on reset, so that fixtures do not share
+   * it: its type is mutable but copyable, and its default is not lazy.
+   *
+   * @param field The snapshot of the field.
+   * @return {@code true} if the default value of the field is copied on reset.
+   */
+  private boolean copiedOnReset(final FieldSpec field) {
+    return field.mutable() && !field.immutableType() && field.copyable() && !field.lazyDefault();
+  }
+
+  /**
+   * Checks whether the default value of a field is built again on reset, instead of being read from the snapshot:
+   * its type is neither known to be immutable nor copyable, and its default is neither lazy nor the Java default
+   * value of a record component without {@code buildValid()}.
+   *
+   * @param spec  The spec of the generated fixture.
+   * @param field The snapshot of the field.
+   * @return {@code true} if the default value of the field is built again on reset.
+   */
+  private boolean recomputedOnReset(final FixtureSpec spec, final FieldSpec field) {
+    return field.mutable() && !field.immutableType() && !field.copyable() && !field.lazyDefault()
+        && (!spec.recordModel() || spec.hasBuildValid());
+  }
+
+  /**
+   * Generates the per-thread arena handing out reset fixtures. Released fixtures are kept on a stack and reset when
+   * acquired again, so a steady build loop allocates no fixture, and no model unless some defaults are built again.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  private void generateFixtureArena(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("    ",
+            "Per-thread pool of reusable fixtures. Acquire a fixture, build with it, then release it.")
+        .append("    public static final class FixtureArena {\n\n")
+        .append("        private static final ThreadLocal<FixtureArena> ARENAS =\n")
+        .append("            ThreadLocal.withInitial(FixtureArena::new);\n\n")
+        .append("        private ").append(fixtureClassName).append("[] released = new ").append(fixtureClassName)
+        .append("[4];\n")
+        .append("        private int releasedCount;\n\n")
+        .append("        private FixtureArena() {\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Returns the arena of the current thread.",
+            "@return The arena of the current thread.")
+        .append("        public static FixtureArena current() {\n")
+        .append("            return ARENAS.get();\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Hands out a fixture holding the default values, reusing a released fixture if any.",
+            "@return A reset fixture.")
+        .append("        public ").append(fixtureClassName).append(" acquire() {\n")
+        .append("            if (releasedCount == 0) {\n")
+        .append("                return new ").append(fixtureClassName).append("();\n")
+        .append("            }\n")
+        .append("            final ").append(fixtureClassName).append(" fixture = released[--releasedCount];\n")
+        .append("            released[releasedCount] = null;\n")
+        .append("            return fixture.reset();\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Gives a fixture back to the arena. It must not be used afterwards.",
+            "@param fixture The fixture to reuse.")
+        .append("        public void release(final ").append(fixtureClassName).append(" fixture) {\n")
+        .append("            if (releasedCount == released.length) {\n")
+        .append("                released = java.util.Arrays.copyOf(released, releasedCount * 2);\n")
+        .append("            }\n")
+        .append("            released[releasedCount++] = fixture;\n")
+        .append("        }\n")
+        .append("    }\n\n");
+  }
+
+  /**
+   * Generates the spliterator backing the streams. It covers a range of indexes and splits it in halves, and each
+   * split creates its own fixture on first use, so every worker reuses a single fixture.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  private void generateBulkSpliterator(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    final String entitySimpleName = spec.entitySimpleName();
+    out.append("    private static final class BulkSpliterator implements java.util.Spliterator<")
+        .append(entitySimpleName).append("> {\n\n")
+        .append("        private final long fence;\n")
+        .append("        private final boolean seeded;\n")
+        .append("        private final long seed;\n")
+        .append("        private final SeededCustomizer customizer;\n")
+        .append("        private long index;\n")
+        .append("        private ").append(fixtureClassName).append(" fixture;\n\n")
+        .append("        private BulkSpliterator(final long origin, final long fence, final boolean seeded,\n")
+        .append("                final long seed, final SeededCustomizer customizer) {\n")
+        .append("            this.index = origin;\n")
+        .append("            this.fence = fence;\n")
+        .append("            this.seeded = seeded;\n")
+        .append("            this.seed = seed;\n")
+        .append("            this.customizer = customizer;\n")
+        .append("        }\n\n")
+        .append("        @Override\n")
+        .append("        public boolean tryAdvance(final java.util.function.Consumer<? super ").append(entitySimpleName)
+        .append("> action) {\n")
+        .append("            if (index >= fence) {\n")
+        .append("                return false;\n")
+        .append("            }\n")
+        .append("            action.accept(buildNext(index++));\n")
+        .append("            return true;\n")
+        .append("        }\n\n")
+        .append("        @Override\n")
+        .append("        public void forEachRemaining(final java.util.function.Consumer<? super ")
+        .append(entitySimpleName).append("> action) {\n")
+        .append("            while (index < fence) {\n")
+        .append("                action.accept(buildNext(index++));\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        @Override\n")
+        .append("        public java.util.Spliterator<").append(entitySimpleName).append("> trySplit() {\n")
+        .append("            final long middle = index + (fence - index) / 2;\n")
+        .append("            if (middle <= index) {\n")
+        .append("                return null;\n")
+        .append("            }\n")
+        .append("            final BulkSpliterator prefix =\n")
+        .append("                new BulkSpliterator(index, middle, seeded, seed, customizer);\n")
+        .append("            index = middle;\n")
+        .append("            return prefix;\n")
+        .append("        }\n\n")
+        .append("        @Override\n")
+        .append("        public long estimateSize() {\n")
+        .append("            return Math.max(0L, fence - index);\n")
+        .append("        }\n\n")
+        .append("        @Override\n")
+        .append("        public int characteristics() {\n")
+        .append("            return ORDERED | SIZED | SUBSIZED;\n")
+        .append("        }\n\n")
+        .append("        private ").append(entitySimpleName).append(" buildNext(final long entityIndex) {\n")
+        .append("            if (fixture == null) {\n")
+        .append("                fixture = new ").append(fixtureClassName).append("();\n")
+        .append("            }\n")
+        .append("            fixture.reset();\n")
+        .append("            customizer.accept(fixture, entityIndex,\n")
+        .append("                seeded ? new java.util.SplittableRandom(seedFor(entityIndex)) : null);\n")
+        .append("            return fixture.build();\n")
+        .append("        }\n\n")
+        .append("        private long seedFor(final long entityIndex) {\n")
+        .append("            long z = seed + entityIndex * 0x9E3779B97F4A7C15L;\n")
+        .append("            z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;\n")
+        .append("            z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;\n")
+        .append("            return z ^ (z >>> 33);\n")
+        .append("        }\n")
+        .append("    }\n\n");
+  }
+}
@@ -0,0 +1,91 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Completes a {@code fixture.stats} report with the class files of the fixtures, read from the class output directory
+ * once the compilation is over.
+ *
+ * <p>
+ * The {@link ClassFileTracker} only measures the class files when javac runs the processor directly. When a build
+ * tool wraps the processing environment, as Gradle does, the bytecode fields of the report are left {@code null}:
+ * this tool fills them in afterwards. Usage: {@code BytecodeReport <report.json> <class output directory>}.
+ *
+ * <p>
+ * Each fixture is measured from the class file of its top-level class and those of its nested classes. Fixtures
+ * without a class file in the directory keep their previous values.
+ */
+public final class BytecodeReport {
+
+  private static final Pattern FIXTURE = Pattern.compile("\"fixture\": \"([^\"]+)\"");
+  private static final Pattern BYTECODE_FIELDS = Pattern.compile(
+      "\"classFiles\": [^,]+, \"bytecodeBytes\": [^,]+, \"bytecodeMethods\": [^,]+");
+
+  private BytecodeReport() {
+  }
+
+  /**
+   * Rewrites the report given as first argument with the class files found in the directory given as second argument.
+   *
+   * @param args The path of the JSON report and the class output directory.
+   * @throws IOException if the report or a class file cannot be read, or the report cannot be written.
+   */
+  public static void main(final String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: BytecodeReport <report.json> <class output directory>");
+    }
+    final Path report = Path.of(args[0]);
+    final Path classOutput = Path.of(args[1]);
+    final List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+    int measured = 0;
+    long bytecodeBytes = 0;
+    for (int i = 0; i < lines.size(); i++) {
+      final String line = lines.get(i);
+      final Matcher fixture = FIXTURE.matcher(line);
+      final Matcher fields = BYTECODE_FIELDS.matcher(line);
+      if (!fixture.find() || !fields.find()) {
+        continue;
+      }
+      final FixtureStats stats = new FixtureStats(fixture.group(1));
+      measure(classOutput, fixture.group(1), stats);
+      if (stats.classFiles() > 0) {
+        lines.set(i, line.substring(0, fields.start())
+            + "\"classFiles\": " + stats.classFiles()
+            + ", \"bytecodeBytes\": " + stats.bytecodeBytes()
+            + ", \"bytecodeMethods\": " + stats.bytecodeMethods()
+            + line.substring(fields.end()));
+        measured++;
+        bytecodeBytes += stats.bytecodeBytes();
+      }
+    }
+    Files.write(report, lines, StandardCharsets.UTF_8);
+    System.out.println("Measured the class files of " + measured + " fixture(s), " + bytecodeBytes
+        + " bytes of bytecode. Report: " + report);
+  }
+
+  private static void measure(final Path classOutput, final String fixtureName, final FixtureStats stats)
+      throws IOException {
+    final int lastDot = fixtureName.lastIndexOf('.');
+    final Path packageDir = lastDot < 0
+        ? classOutput
+        : classOutput.resolve(fixtureName.substring(0, lastDot).replace('.', '/'));
+    final String simpleName = fixtureName.substring(lastDot + 1);
+    if (!Files.isRegularFile(packageDir.resolve(simpleName + ".class"))) {
+      return;
+    }
+    try (DirectoryStream<Path> classFiles = Files.newDirectoryStream(packageDir,
+        simpleName + "{.class,$*.class}")) {
+      for (final Path classFile : classFiles) {
+        final byte[] bytes = Files.readAllBytes(classFile);
+        stats.recordClassFile(bytes.length, ClassFileTracker.countMethods(bytes));
+      }
+    }
+  }
+}
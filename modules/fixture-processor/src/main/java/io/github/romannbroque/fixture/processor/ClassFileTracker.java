@@ -0,0 +1,135 @@
+package io.github.romannbroque.fixture.processor;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Measures the class files the compiler writes for the generated fixtures, through the task listener API of javac.
+ *
+ * <p>
+ * Class files are only written once annotation processing is over, so the measures are recorded from the
+ * {@code GENERATE} events of the compiler, then reported at the end of the compilation. The tracker is only
+ * registered when javac accepts the processing environment as its own: other compilers, and build tools wrapping the
+ * environment such as Gradle, are not supported: the bytecode measures are then left out of the report, and
+ * {@link BytecodeReport} reads them from the class output directory after the compilation.
+ */
+final class ClassFileTracker implements TaskListener {
+
+  private final ProcessingEnvironment processingEnv;
+  private final ProcessorStats stats;
+  private final Runnable onCompilationFinished;
+
+  private ClassFileTracker(final ProcessingEnvironment processingEnv, final ProcessorStats stats,
+                           final Runnable onCompilationFinished) {
+    this.processingEnv = processingEnv;
+    this.stats = stats;
+    this.onCompilationFinished = onCompilationFinished;
+  }
+
+  /**
+   * Registers a tracker on the compiler running the processor, if it is javac and the processing environment is not
+   * wrapped by the build tool.
+   *
+   * @param processingEnv         The processing environment given to the processor.
+   * @param stats                 The statistics receiving the measures of the fixture class files.
+   * @param onCompilationFinished The action run once every class file is written.
+   * @return {@code true} if the tracker is registered, {@code false} if the compiler does not support it.
+   */
+  static boolean register(final ProcessingEnvironment processingEnv, final ProcessorStats stats,
+                          final Runnable onCompilationFinished) {
+    try {
+      JavacTask.instance(processingEnv)
+          .addTaskListener(new ClassFileTracker(processingEnv, stats, onCompilationFinished));
+      return true;
+    } catch (final IllegalArgumentException | LinkageError e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void finished(final TaskEvent event) {
+    if (event.getKind() == TaskEvent.Kind.GENERATE && event.getTypeElement() != null) {
+      final TypeElement type = event.getTypeElement();
+      stats.recordClassFile(topLevelName(type), fixture -> measure(type, fixture));
+    } else if (event.getKind() == TaskEvent.Kind.COMPILATION) {
+      onCompilationFinished.run();
+    }
+  }
+
+  private void measure(final TypeElement type, final FixtureStats fixture) {
+    final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    final String relativeName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+        + ".class";
+    try {
+      final FileObject classFile = processingEnv.getFiler()
+          .getResource(StandardLocation.CLASS_OUTPUT, packageName, relativeName);
+      try (InputStream in = classFile.openInputStream()) {
+        final byte[] bytes = in.readAllBytes();
+        fixture.recordClassFile(bytes.length, countMethods(bytes));
+      }
+    } catch (final IOException | IllegalArgumentException e) {
+      // the class file is not readable through the Filer, for instance in memory: it is left out of the report
+    }
+  }
+
+  private static String topLevelName(final TypeElement type) {
+    Element current = type;
+    while (current.getEnclosingElement() != null
+        && current.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      current = current.getEnclosingElement();
+    }
+    return ((TypeElement) current).getQualifiedName().toString();
+  }
+
+  /**
+   * Reads the number of methods declared by a class file, including the constructors and the synthetic methods
+   * compiled from lambdas.
+   *
+   * @param classFile The bytes of the class file.
+   * @return The number of methods of the class.
+   * @throws IOException if the class file is truncated.
+   */
+  static int countMethods(final byte[] classFile) throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+    in.skipNBytes(8); // magic and version
+    final int constantCount = in.readUnsignedShort();
+    for (int i = 1; i < constantCount; i++) {
+      final int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1 -> in.skipNBytes(in.readUnsignedShort());
+        case 7, 8, 16, 19, 20 -> in.skipNBytes(2);
+        case 15 -> in.skipNBytes(3);
+        case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+        case 5, 6 -> {
+          in.skipNBytes(8);
+          i++;
+        }
+        default -> throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+    in.skipNBytes(6); // access flags, this class and super class
+    in.skipNBytes(2L * in.readUnsignedShort());
+    final int fieldCount = in.readUnsignedShort();
+    for (int i = 0; i < fieldCount; i++) {
+      in.skipNBytes(6);
+      final int attributeCount = in.readUnsignedShort();
+      for (int a = 0; a < attributeCount; a++) {
+        in.skipNBytes(2);
+        in.skipNBytes(in.readInt() & 0xFFFFFFFFL);
+      }
+    }
+    return in.readUnsignedShort();
+  }
+}
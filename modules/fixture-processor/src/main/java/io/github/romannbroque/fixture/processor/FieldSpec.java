@@ -0,0 +1,35 @@
+package io.github.romannbroque.fixture.processor;
+
+/**
+ * Immutable snapshot of a data model field, extracted from the element API before rendering.
+ *
+ * @param name          The field name.
+ * @param type          The field type, as written in the generated source.
+ * @param primitive     Whether the field type is a primitive type.
+ * @param enumType      Whether the field type is an enum.
+ * @param mutable       Whether the field is an instance field that can be assigned, i.e. neither static nor final.
+ *                      The components of a record data model are held by the fixture, so they are always mutable.
+ * @param immutableType Whether the field type is known to be immutable, so that its default value can be shared
+ *                      between fixtures: primitives and their wrappers, strings, enums, records, {@code java.time}
+ *                      types, {@code BigDecimal}, {@code BigInteger} and {@code UUID}.
+ * @param copyable      Whether the default value of the field can be copied for each fixture without sharing mutable
+ *                      state: a list, set or map of immutable types, an array of an immutable type, or a
+ *                      {@code java.util.Date}.
+ * @param overrideBit   The index of the bit tracking whether the field was overridden, when its default value is
+ *                      computed lazily by a {@code default<Field>()} supplier of the dataset or by a sequence;
+ *                      {@code -1} otherwise.
+ * @param random        The strategy drawing a random value for the field, or {@code null} if it is not randomized.
+ * @param sequence      The sequence giving the default value of the field, or {@code null} if there is none.
+ */
+record FieldSpec(String name, String type, boolean primitive, boolean enumType, boolean mutable,
+                 boolean immutableType, boolean copyable, int overrideBit, RandomSpec random, SequenceSpec sequence) {
+
+  /**
+   * Checks whether the default value of the field is computed lazily.
+   *
+   * @return {@code true} if the field default comes from a supplier of the dataset or from a sequence.
+   */
+  boolean lazyDefault() {
+    return overrideBit >= 0;
+  }
+}
@@ -7,6 +7,19 @@ import io.github.romannbroque.fixture.annotations.GenerateFixture;
  *
  * @param entityClassName    Fully qualified name of the target entity class.
  * @param dataModelClassName Fully qualified name of the data model class (inner "Model" class).
+ * @param constructEntity    Whether the record entity is built by calling its canonical constructor directly.
+ * @param prototypeModel     Whether the default model is built once and copied for each fixture.
+ * @param lazyDefaults       Whether defaults declared by {@code default<Field>()} suppliers are computed lazily.
+ * @param cacheDefault       Whether the default and invalid entities are built once and shared.
+ * @param rowWriter          Whether a JSON Lines and CSV row writer is generated in the fixture.
+ * @param snapshot           Whether a memory-mapped snapshot codec is generated in the fixture.
+ * @param variants           Whether the {@code variants()} API is generated in the fixture.
+ * @param getters            Whether a {@code getX()} method is generated per field.
+ * @param withoutMethods     Whether a {@code withoutX()} method is generated per non-primitive field.
+ * @param compact            Whether the fixture is emitted without Javadoc and static bulk methods.
  */
-record FixtureAnnotation(String entityClassName, String dataModelClassName) {
+record FixtureAnnotation(String entityClassName, String dataModelClassName, boolean constructEntity,
+                         boolean prototypeModel, boolean lazyDefaults, boolean cacheDefault, boolean rowWriter,
+                         boolean snapshot, boolean variants, boolean getters, boolean withoutMethods,
+                         boolean compact) {
 }
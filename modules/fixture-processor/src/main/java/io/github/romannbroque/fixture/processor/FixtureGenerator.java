@@ -1,192 +1,423 @@
 package io.github.romannbroque.fixture.processor;
 
-import java.io.IOException;
-import java.io.Writer;
-import java.lang.reflect.Method;
-import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.Element;
-import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.TypeElement;
-import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
 
 /**
- * This class is responsible for generating fixture classes based on the annotated dataset definitions.
- * It analyzes the base dataset class and its nested data model class, then generates a corresponding fixture builder
- * with a fluent API. It also handles the automatic wiring of optional `buildValid` and `buildInvalid` static methods
- * if they are present in the dataset class.
+ * This class is responsible for rendering fixture classes from the {@link FixtureSpec} of an annotated dataset.
+ * It generates a fixture builder with a fluent API over the data model, and handles the automatic wiring of optional
+ * `buildValid` and `buildInvalid` static methods if they are present in the dataset class.
+ *
+ * <p>
+ * Rendering only reads the immutable spec, so fixtures can be rendered concurrently.
  */
 class FixtureGenerator {
 
-  private final ProcessingEnvironment processingEnv;
-  private final AnnotationParser annotationParser;
+  private static final String BUILD_EVENT = "io.github.romannbroque.fixture.runtime.FixtureBuildEvent";
+  private static final String FACTORY_EVENT = "io.github.romannbroque.fixture.runtime.FixtureFactoryEvent";
+
   private final ModelFieldGenerator fieldGenerator;
-  private final StringUtils stringUtils;
+  private final BulkMethodGenerator bulkGenerator;
+  private final RowWriterGenerator rowWriterGenerator;
+  private final SnapshotCodecGenerator snapshotGenerator;
+  private final VariantsGenerator variantsGenerator;
 
-  FixtureGenerator(final ProcessingEnvironment processingEnv) {
-    this.processingEnv = processingEnv;
-    this.stringUtils = new StringUtils();
-    this.annotationParser = new AnnotationParser(processingEnv);
+  FixtureGenerator(final StringUtils stringUtils) {
     this.fieldGenerator = new ModelFieldGenerator(stringUtils);
+    this.bulkGenerator = new BulkMethodGenerator(fieldGenerator);
+    this.rowWriterGenerator = new RowWriterGenerator();
+    this.snapshotGenerator = new SnapshotCodecGenerator(fieldGenerator);
+    this.variantsGenerator = new VariantsGenerator(stringUtils);
+  }
+
+  /**
+   * Renders the source of the fixture class described by the given spec.
+   *
+   * @param spec    The fixture spec.
+   * @param out     The emitter used to write the generated code.
+   * @param stats   The statistics updated with the rendering time.
+   */
+  void generateFixture(final FixtureSpec spec, final SourceEmitter out, final FixtureStats stats) {
+    final long start = System.nanoTime();
+    generatePackageAndImports(out, spec);
+    generateClassDeclaration(out, spec);
+    generateFactoryMethods(out, spec);
+    generateModelAccessors(out, spec);
+    generateBuildMethod(out, spec);
+    bulkGenerator.generateBulkMethods(out, spec);
+    if (spec.rowWriter()) {
+      rowWriterGenerator.generateRowWriter(out, spec);
+    }
+    if (spec.snapshot()) {
+      snapshotGenerator.generateSnapshot(out, spec);
+    }
+    if (spec.variants()) {
+      variantsGenerator.generateVariants(out, spec);
+    }
+
+    final long fieldsStart = System.nanoTime();
+    generateFieldMethods(out, spec);
+    if (spec.hasRandomFields()) {
+      fieldGenerator.generateRandomize(out, spec);
+    }
+    if (spec.prototypeModel() && !spec.recordModel()) {
+      generateModelCopy(out, spec);
+    }
+    for (final FieldSpec field : spec.fields()) {
+      if (field.sequence() != null) {
+        fieldGenerator.generateSequence(out, field);
+      }
+    }
+    if (spec.overrideWordCount() > 0) {
+      generateLazyDefaults(out, spec);
+    }
+    final long fieldsEnd = System.nanoTime();
+
+    if (spec.jfrEvents()) {
+      generateBuildEvent(out, spec);
+      out.append("    private ").append(spec.entitySimpleName()).append(" buildEntity() {\n");
+    } else {
+      out.append("    public ").append(spec.entitySimpleName()).append(" build() {\n");
+    }
+    if (spec.overrideWordCount() > 0) {
+      out.append("        applyLazyDefaults();\n");
+    }
+    if (spec.constructsEntity()) {
+      out.append("        return ").append(constructorCall(spec, spec.entitySimpleName(), spec.entityConstructorArgs()))
+          .append(";\n");
+    } else {
+      out.append("        return ").append(spec.baseClassName()).append(".build(")
+          .append(spec.recordModel() ? recordModelCall(spec) : "model")
+          .append(");\n");
+    }
+    out.append("    }\n");
+
+    out.append("}\n");
+    final long fieldRenderingNanos = fieldsEnd - fieldsStart;
+    stats.recordRendering(System.nanoTime() - start - fieldRenderingNanos, fieldRenderingNanos);
   }
 
   /**
-   * Generates the fixture class for a given annotated dataset element.
+   * Estimates the length of the rendered source, used to pre-size the rendering buffers.
    *
-   * @param baseDataSetElement The annotated dataset element.
+   * @param spec The fixture spec.
+   * @return The estimated number of characters of the generated source.
    */
-  void generateFixture(final TypeElement baseDataSetElement) {
-    final FixtureAnnotation parsedAnnotation = annotationParser.parseGenerateFixtureAnnotation(baseDataSetElement);
-
-    final String entityClassName = parsedAnnotation.entityClassName();
-    final String dataModelClassName = parsedAnnotation.dataModelClassName();
-    final String dataModelSimpleName = stringUtils.getSimpleName(dataModelClassName);
-    final String entitySimpleName = stringUtils.getSimpleName(entityClassName);
-    final String baseClassName = baseDataSetElement.getSimpleName().toString();
-    final String fixtureClassName = entitySimpleName + "Fixture";
-    final String packageName = processingEnv.getElementUtils().getPackageOf(baseDataSetElement).toString();
-    final String baseClassQualifiedName = processingEnv.getElementUtils().getBinaryName(baseDataSetElement).toString();
-
-    final StringBuilder builder = new StringBuilder();
-    generatePackageAndImports(builder, packageName, entityClassName, dataModelClassName, baseClassQualifiedName);
-    generateClassDeclaration(builder, fixtureClassName, baseClassName, dataModelSimpleName);
-    generateFactoryMethods(builder, fixtureClassName, baseClassName, dataModelSimpleName);
-    generateModelAccessors(builder, fixtureClassName, dataModelSimpleName);
-    generateBuildMethod(builder, entitySimpleName);
-    generateFieldMethods(builder, fixtureClassName, dataModelClassName, dataModelSimpleName, baseDataSetElement);
-
-    builder.append("    public ").append(entitySimpleName).append(" build() {\n");
-    builder.append("        return ").append(baseClassName).append(".build(model);\n");
-    builder.append("    }\n");
-
-    builder.append("}\n");
-
-    writeClass(packageName + "." + fixtureClassName, builder.toString());
-  }
-
-  private void generatePackageAndImports(final StringBuilder builder, final String packageName,
-                                         final String entityClassName, final String dataModelClassName,
-                                         final String baseClassQualifiedName) {
-    builder.append("package ").append(packageName).append(";\n\n");
-    builder.append("import ").append(entityClassName).append(";\n");
-    builder.append("import ").append(dataModelClassName).append(";\n");
+  int estimateSourceLength(final FixtureSpec spec) {
+    return 6144 + 768 * spec.fields().size();
+  }
+
+  private void generatePackageAndImports(final SourceEmitter out, final FixtureSpec spec) {
+    final String packageName = spec.packageName();
+    final String baseClassQualifiedName = spec.baseClassQualifiedName();
+    out.append("package ").append(packageName).append(";\n\n");
+    out.append("import ").append(spec.entityClassName()).append(";\n");
+    if (!spec.dataModelClassName().equals(spec.entityClassName())) {
+      out.append("import ").append(spec.dataModelClassName()).append(";\n");
+    }
 
     final String baseClassPackage = baseClassQualifiedName.substring(0, baseClassQualifiedName.lastIndexOf('.'));
     if (!baseClassPackage.equals(packageName)) {
-      builder.append("import ").append(baseClassQualifiedName).append(";\n");
+      out.append("import ").append(baseClassQualifiedName).append(";\n");
     }
-    builder.append("\n");
+    out.append("\n");
   }
 
-  private void generateClassDeclaration(final StringBuilder builder, final String fixtureClassName,
-                                        final String baseClassName, final String dataModelSimpleName) {
-    builder.append("/**\n");
-    builder.append(" * Auto-generated fixture class to simplify the creation of ")
-        .append(fixtureClassName.replace("Fixture", ""))
-        .append(" instances.\n");
-    builder.append(" * This class uses the builder pattern with a fluent API.\n");
-    builder.append(" */\n");
-    builder.append("public class ").append(fixtureClassName).append(" {\n\n");
+  private void generateClassDeclaration(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("",
+        "Auto-generated fixture class to simplify the creation of " + fixtureClassName.replace("Fixture", "")
+            + " instances.",
+        "This class uses the builder pattern with a fluent API.");
+    out.append("public class ").append(fixtureClassName).append(" {\n\n");
+
+    if (spec.recordModel()) {
+      generateRecordModelState(out, spec);
+    } else if (spec.prototypeModel()) {
+      out.append("    private static final ").append(spec.dataModelSimpleName()).append(" DEFAULT_MODEL = ")
+          .append(fieldGenerator.defaultModelCall(spec)).append(";\n\n");
+      out.append("    private ").append(spec.dataModelSimpleName()).append(" model = copyModel(DEFAULT_MODEL);\n\n");
+    } else {
+      out.append("    private ").append(spec.dataModelSimpleName()).append(" model = ")
+          .append(fieldGenerator.defaultModelCall(spec)).append(";\n\n");
+    }
+
+    if (!spec.recordModel()) {
+      out.append("    private final ").append(spec.dataModelSimpleName()).append(" ownModel = model;\n\n");
+    }
+
+    for (int word = 0; word < spec.overrideWordCount(); word++) {
+      out.append("    private long ").append(fieldGenerator.overrideWord(word)).append(";\n\n");
+    }
+
+    for (int word = 0; word < spec.customizedWordCount(); word++) {
+      out.append("    private long ").append(fieldGenerator.customizedWord(word)).append(";\n\n");
+    }
 
-    builder.append("    private ").append(dataModelSimpleName).append(" model = ")
-        .append(resolveBuildValidCall(baseClassName, dataModelSimpleName)).append(";\n\n");
+    if (spec.recordModel() && spec.hasBuildValid()) {
+      out.append("    public ").append(fixtureClassName).append("() {\n")
+          .append("        readModel(")
+          .append(spec.prototypeModel() ? "DEFAULT_MODEL" : fieldGenerator.defaultModelCall(spec)).append(");\n")
+          .append("    }\n\n");
+    }
   }
 
-  private void generateFactoryMethods(final StringBuilder builder, final String fixtureClassName,
-                                      final String baseClassName, final String dataModelSimpleName) {
-    builder.append("    /**\n")
-        .append("     * Creates a default fixture instance.\n")
-        .append("     * @return A new instance of ").append(fixtureClassName).append("\n")
-        .append("     */\n")
-        .append("    public static ").append(fixtureClassName).append(" defaultFixture() {\n")
-        .append("        return new ").append(fixtureClassName).append("();\n")
-        .append("    }\n\n");
+  /**
+   * Generates the state of a fixture over a record data model: one field per component, so that no model instance
+   * is kept or copied while the fixture is customized.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The fixture spec.
+   */
+  private void generateRecordModelState(final SourceEmitter out, final FixtureSpec spec) {
+    if (spec.prototypeModel() && spec.hasBuildValid()) {
+      out.append("    private static final ").append(spec.dataModelSimpleName()).append(" DEFAULT_MODEL = ")
+          .append(fieldGenerator.defaultModelCall(spec)).append(";\n\n");
+    }
+    for (final FieldSpec field : spec.fields()) {
+      out.append("    private ").append(field.type()).append(" ").append(field.name()).append(";\n");
+    }
+    out.append("\n");
+  }
 
-    builder.append("    /**\n")
-        .append("     * Creates a fixture instance with a custom model.\n")
-        .append("     * @param customModel The custom model to use.\n")
-        .append("     * @return A new instance of ").append(fixtureClassName).append("\n")
-        .append("     */\n")
-        .append("    public static ").append(fixtureClassName).append(" withModel(final ").append(dataModelSimpleName)
-        .append(" customModel) {\n")
+  private void generateFactoryMethods(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("    ",
+            "Creates a default fixture instance.",
+            "@return A new instance of " + fixtureClassName)
+        .append("    public static ").append(fixtureClassName).append(" defaultFixture() {\n");
+    generateFactoryBody(out, spec, "new " + fixtureClassName + "()", "defaultFixture");
+    out.append("    }\n\n");
+
+    out.javadoc("    ",
+            "Creates a fixture instance with a custom model.",
+            "@param customModel The custom model to use.",
+            "@return A new instance of " + fixtureClassName)
+        .append("    public static ").append(fixtureClassName).append(" withModel(final ")
+        .append(spec.dataModelSimpleName()).append(" customModel) {\n")
         .append("        return new ").append(fixtureClassName).append("().useModel(customModel);\n")
         .append("    }\n\n");
 
-    if (hasMethod(baseClassName, "buildInvalid")) {
-      builder.append("    public static ").append(fixtureClassName).append(" invalidFixture() {\n")
-          .append("        return new ").append(fixtureClassName).append("().useModel(").append(baseClassName)
-          .append(".buildInvalid());\n")
-          .append("    }\n\n");
+    if (spec.hasBuildInvalid()) {
+      out.append("    public static ").append(fixtureClassName).append(" invalidFixture() {\n");
+      generateFactoryBody(out, spec, "new " + fixtureClassName + "().useModel(" + spec.baseClassName()
+          + ".buildInvalid())", "invalidFixture");
+      out.append("    }\n\n");
     }
   }
 
-  private void generateModelAccessors(final StringBuilder builder, final String fixtureClassName,
-                                      final String dataModelSimpleName) {
-    builder.append("    public ").append(fixtureClassName).append(" useModel(final ").append(dataModelSimpleName)
-        .append(" customModel) {\n")
-        .append("        this.model = customModel;\n")
-        .append("        return this;\n")
+  /**
+   * Generates the body of a fixture factory, wrapped in a JFR event when enabled. A disabled event is only checked,
+   * and its allocation is then removed by the JIT compiler.
+   *
+   * @param out      The emitter to write into.
+   * @param spec     The fixture spec.
+   * @param creation The expression creating the fixture.
+   * @param factory  The name of the factory method.
+   */
+  private void generateFactoryBody(final SourceEmitter out, final FixtureSpec spec, final String creation,
+                                   final String factory) {
+    if (!spec.jfrEvents()) {
+      out.append("        return ").append(creation).append(";\n");
+      return;
+    }
+    final String fixtureClassName = spec.fixtureClassName();
+    out.append("        final ").append(FACTORY_EVENT).append(" event = new ").append(FACTORY_EVENT).append("();\n")
+        .append("        if (!event.isEnabled()) {\n")
+        .append("            return ").append(creation).append(";\n")
+        .append("        }\n")
+        .append("        event.begin();\n")
+        .append("        final ").append(fixtureClassName).append(" fixture = ").append(creation).append(";\n")
+        .append("        event.complete(").append(fixtureClassName).append(".class, \"").append(factory)
+        .append("\");\n")
+        .append("        return fixture;\n");
+  }
+
+  /**
+   * Generates the {@code build()} method wrapped in a JFR event, delegating to {@code buildEntity()}, along with the
+   * count of the fields set through the fixture reported by the event.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The fixture spec.
+   */
+  private void generateBuildEvent(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    final String entitySimpleName = spec.entitySimpleName();
+    out.append("    private int customizedFieldCount() {\n")
+        .append("        return ");
+    for (int word = 0; word < spec.customizedWordCount(); word++) {
+      out.append(word == 0 ? "" : "\n            + ").append("Long.bitCount(")
+          .append(fieldGenerator.customizedWord(word)).append(")");
+    }
+    out.append(spec.customizedWordCount() == 0 ? "0;\n" : ";\n")
         .append("    }\n\n");
 
-    builder.append("    public ").append(dataModelSimpleName).append(" getModel() {\n")
-        .append("        return this.model;\n")
+    out.append("    public ").append(entitySimpleName).append(" build() {\n")
+        .append("        final ").append(BUILD_EVENT).append(" event = new ").append(BUILD_EVENT).append("();\n")
+        .append("        if (!event.isEnabled()) {\n")
+        .append("            return buildEntity();\n")
+        .append("        }\n")
+        .append("        event.begin();\n")
+        .append("        final ").append(entitySimpleName).append(" entity = buildEntity();\n")
+        .append("        event.complete(").append(fixtureClassName).append(".class, customizedFieldCount());\n")
+        .append("        return entity;\n")
         .append("    }\n\n");
   }
 
-  private void generateBuildMethod(final StringBuilder builder, final String entitySimpleName) {
-    builder.append("    public static ").append(entitySimpleName).append(" buildDefault() {\n")
-        .append("        return defaultFixture().build();\n")
+  private void generateModelAccessors(final SourceEmitter out, final FixtureSpec spec) {
+    final String dataModelSimpleName = spec.dataModelSimpleName();
+    out.append("    public ").append(spec.fixtureClassName()).append(" useModel(final ").append(dataModelSimpleName)
+        .append(" customModel) {\n")
+        .append(spec.recordModel() ? "        readModel(customModel);\n" : "        this.model = customModel;\n");
+    generateOverrideAll(out, spec);
+    out.append("        return this;\n")
         .append("    }\n\n");
-  }
 
-  private void generateFieldMethods(final StringBuilder builder, final String fixtureClassName,
-                                    final String dataModelClassName, final String dataModelSimpleName,
-                                    final TypeElement baseDataSetElement) {
-    final TypeElement dataModelTypeElement = findDataModelTypeElement(dataModelClassName);
+    out.append("    public ").append(dataModelSimpleName).append(" getModel() {\n");
+    if (spec.overrideWordCount() > 0) {
+      out.append("        applyLazyDefaults();\n");
+    }
+    out.append("        return ").append(spec.recordModel() ? recordModelCall(spec) : "this.model").append(";\n")
+        .append("    }\n\n");
 
-    if (dataModelTypeElement != null) {
-      for (final Element field : dataModelTypeElement.getEnclosedElements()) {
-        fieldGenerator.generateFieldMethods(builder, field, fixtureClassName);
+    if (spec.recordModel()) {
+      out.append("    private void readModel(final ").append(dataModelSimpleName).append(" source) {\n");
+      for (final FieldSpec field : spec.fields()) {
+        out.append("        ").append(fieldGenerator.fieldAccess(spec, field)).append(" = source.")
+            .append(field.name()).append("();\n");
       }
-    } else {
-      for (final Element enclosed : baseDataSetElement.getEnclosedElements()) {
-        if (enclosed.getKind() == ElementKind.CLASS && enclosed.getSimpleName().contentEquals(dataModelSimpleName)) {
-          for (final Element field : enclosed.getEnclosedElements()) {
-            fieldGenerator.generateFieldMethods(builder, field, fixtureClassName);
-          }
+      out.append("    }\n\n");
+    }
+  }
+
+  /**
+   * Returns the expression creating a record model from the components held by the fixture.
+   *
+   * @param spec The fixture spec.
+   * @return The record model creation expression.
+   */
+  private String recordModelCall(final FixtureSpec spec) {
+    final List<String> componentNames = new ArrayList<>(spec.fields().size());
+    for (final FieldSpec field : spec.fields()) {
+      componentNames.add(field.name());
+    }
+    return constructorCall(spec, spec.dataModelSimpleName(), componentNames);
+  }
+
+  private String constructorCall(final FixtureSpec spec, final String className, final List<String> fieldNames) {
+    final StringJoiner args = new StringJoiner(", ", "new " + className + "(", ")");
+    for (final String fieldName : fieldNames) {
+      for (final FieldSpec field : spec.fields()) {
+        if (field.name().equals(fieldName)) {
+          args.add(fieldGenerator.fieldAccess(spec, field));
         }
       }
     }
+    return args.toString();
   }
 
-  private TypeElement findDataModelTypeElement(final String className) {
-    return processingEnv.getElementUtils().getTypeElement(className);
+  /**
+   * Marks every lazy default as overridden, so the current model is used as is.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The fixture spec.
+   */
+  private void generateOverrideAll(final SourceEmitter out, final FixtureSpec spec) {
+    for (int word = 0; word < spec.overrideWordCount(); word++) {
+      out.append("        ").append(fieldGenerator.overrideWord(word)).append(" = -1L;\n");
+    }
   }
 
-  private boolean hasMethod(final String className, final String methodName) {
-    try {
-      final Class<?> clazz = Class.forName(className);
-      final Method method = clazz.getMethod(methodName);
-      return method != null;
-    } catch (Exception e) {
-      return false;
+  private void generateBuildMethod(final SourceEmitter out, final FixtureSpec spec) {
+    final String entitySimpleName = spec.entitySimpleName();
+    if (!spec.cacheDefault()) {
+      out.append("    public static ").append(entitySimpleName).append(" buildDefault() {\n")
+          .append("        return defaultFixture().build();\n")
+          .append("    }\n\n");
+      return;
+    }
+    generateSharedEntity(out, spec, "DefaultEntity", "buildDefault", "defaultFixture");
+    if (spec.hasBuildInvalid()) {
+      generateSharedEntity(out, spec, "InvalidEntity", "buildInvalid", "invalidFixture");
     }
   }
 
-  private String resolveBuildValidCall(final String baseClassName, final String dataModelSimpleName) {
-    if (hasMethod(baseClassName, "buildValid")) {
-      return baseClassName + ".buildValid()";
+  /**
+   * Generates a static method returning an entity built once, on first call, through the initialization of a
+   * nested holder class, which the JVM guarantees to be thread-safe.
+   *
+   * @param out        The emitter to write into.
+   * @param spec       The fixture spec.
+   * @param holderName The name of the nested holder class.
+   * @param methodName The name of the generated method.
+   * @param factory    The fixture factory building the shared entity.
+   */
+  private void generateSharedEntity(final SourceEmitter out, final FixtureSpec spec, final String holderName,
+                                    final String methodName, final String factory) {
+    final String entitySimpleName = spec.entitySimpleName();
+    out.append("    private static final class ").append(holderName).append(" {\n")
+        .append("        private static final ").append(entitySimpleName).append(" INSTANCE = ").append(factory)
+        .append("().build();\n")
+        .append("    }\n\n")
+        .javadoc("    ",
+            "Returns an entity shared by all callers, built on first call from {@code " + factory + "()}.",
+            "@return The shared " + entitySimpleName + " instance.")
+        .append("    public static ").append(entitySimpleName).append(" ").append(methodName).append("() {\n")
+        .append("        return ").append(holderName).append(".INSTANCE;\n")
+        .append("    }\n\n");
+  }
+
+  private void generateFieldMethods(final SourceEmitter out, final FixtureSpec spec) {
+    final List<FieldSpec> fields = spec.fields();
+    for (int index = 0; index < fields.size(); index++) {
+      fieldGenerator.generateFieldMethods(out, fields.get(index), index, spec);
     }
-    return "new " + dataModelSimpleName + "()";
   }
 
-  private void writeClass(final String qualifiedName, final String content) {
-    try {
-      final JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName);
-      try (Writer writer = file.openWriter()) {
-        writer.write(content);
+  /**
+   * Generates the field-by-field copy used to clone the default model built once per fixture class. Only the fields
+   * whose type is known to be immutable are copied: the others keep the value of their initializer in the new model,
+   * so that no fixture shares a mutable default with the prototype.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The fixture spec.
+   */
+  private void generateModelCopy(final SourceEmitter out, final FixtureSpec spec) {
+    final String dataModelSimpleName = spec.dataModelSimpleName();
+    out.javadoc("    ",
+            "Copies the immutable fields of a model into a new instance, without rebuilding their",
+            "default values. The other fields keep their own initial value.",
+            "@param source The model to copy.",
+            "@return A copy of the model, sharing no mutable value with it.")
+        .append("    private static ").append(dataModelSimpleName).append(" copyModel(final ")
+        .append(dataModelSimpleName).append(" source) {\n")
+        .append("        final ").append(dataModelSimpleName).append(" copy = new ").append(dataModelSimpleName)
+        .append("();\n");
+    for (final FieldSpec field : spec.fields()) {
+      if (field.immutableType()) {
+        fieldGenerator.generateFieldCopy(out, field, "copy", "source");
+      }
+    }
+    out.append("        return copy;\n")
+        .append("    }\n\n");
+  }
+
+  /**
+   * Generates the method computing the lazy defaults of the fields that were not overridden.
+   * Once applied, the defaults are kept in the model, so building twice does not compute them again.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The fixture spec.
+   */
+  private void generateLazyDefaults(final SourceEmitter out, final FixtureSpec spec) {
+    out.append("    private void applyLazyDefaults() {\n");
+    for (final FieldSpec field : spec.fields()) {
+      if (field.lazyDefault()) {
+        fieldGenerator.generateLazyDefault(out, field, spec);
       }
-    } catch (final IOException e) {
-      throw new RuntimeException("Failed to write class: " + qualifiedName, e);
     }
+    generateOverrideAll(out, spec);
+    out.append("    }\n\n");
   }
 }
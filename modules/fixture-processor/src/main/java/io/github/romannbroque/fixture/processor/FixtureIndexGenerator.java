@@ -0,0 +1,169 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates the fixture index of the compilation, enabled by {@code -Afixture.registry=<class name>}: a class
+ * implementing the {@code FixtureIndex} service of the runtime module, switching on the entity class name to return
+ * method references to the generated fixture, along with its {@code META-INF/services} registration.
+ *
+ * <p>
+ * The index aggregates every DataSet of the compilation, so it is written once by the {@link GenerationPipeline}, in
+ * the first round that generates no fixture. It must only be used on the processor thread.
+ */
+class FixtureIndexGenerator {
+
+  private static final String INDEX_INTERFACE = "io.github.romannbroque.fixture.runtime.FixtureIndex";
+  private static final String ENTRY_CLASS = "io.github.romannbroque.fixture.runtime.FixtureEntry";
+
+  private final ProcessingEnvironment processingEnv;
+  private final String indexClassName;
+  private final String indexPackage;
+  private final Map<String, FixtureSpec> specsByEntity = new TreeMap<>();
+  private final List<Element> originatingElements = new ArrayList<>();
+  private boolean written;
+
+  FixtureIndexGenerator(final ProcessingEnvironment processingEnv, final String indexClassName) {
+    this.processingEnv = processingEnv;
+    this.indexClassName = indexClassName;
+    final int lastDot = indexClassName.lastIndexOf('.');
+    this.indexPackage = lastDot < 0 ? "" : indexClassName.substring(0, lastDot);
+  }
+
+  /**
+   * Registers a generated fixture in the index. A fixture that cannot be registered is reported as a warning on its
+   * DataSet: when its entity or data model is not visible from the index, when another DataSet already registered a
+   * fixture for the same entity, or when the index was already written.
+   *
+   * @param unit The fixture unit.
+   */
+  void register(final FixtureUnit unit) {
+    final FixtureSpec spec = unit.spec();
+    final Element dataSet = unit.originatingElements().get(0);
+    if (written) {
+      warn(dataSet, spec, "the index was written in an earlier round");
+      return;
+    }
+    for (final String className : List.of(spec.entityClassName(), spec.dataModelClassName())) {
+      if (!isVisibleFromIndex(processingEnv.getElementUtils().getTypeElement(className))) {
+        warn(dataSet, spec, className + " is not public");
+        return;
+      }
+    }
+    final FixtureSpec registered = specsByEntity.putIfAbsent(spec.entityClassName(), spec);
+    if (registered != null) {
+      warn(dataSet, spec, registered.qualifiedFixtureName() + " is already registered for "
+          + spec.entitySimpleName());
+      return;
+    }
+    originatingElements.addAll(unit.originatingElements());
+  }
+
+  boolean written() {
+    return written;
+  }
+
+  String indexClassName() {
+    return indexClassName;
+  }
+
+  Element[] originatingElements() {
+    return originatingElements.toArray(new Element[0]);
+  }
+
+  int estimateSourceLength() {
+    return 1024 + 384 * specsByEntity.size();
+  }
+
+  /**
+   * Renders the source of the index class.
+   *
+   * @param out The emitter to write into.
+   */
+  void render(final SourceEmitter out) {
+    if (!indexPackage.isEmpty()) {
+      out.append("package ").append(indexPackage).append(";\n\n");
+    }
+    out.javadoc("",
+            "Auto-generated index of the fixtures of this compilation, looked up by",
+            "{@code Fixtures.forEntity}.")
+        .append("public final class ").append(indexClassName.substring(indexClassName.lastIndexOf('.') + 1))
+        .append(" implements ").append(INDEX_INTERFACE).append(" {\n\n")
+        .append("    @Override\n")
+        .append("    public ").append(ENTRY_CLASS).append("<?, ?, ?> find(final String entityClassName) {\n")
+        .append("        return switch (entityClassName) {\n");
+    for (final FixtureSpec spec : specsByEntity.values()) {
+      final String fixture = spec.qualifiedFixtureName();
+      out.append("            case \"").append(spec.entityClassName()).append("\" -> new ").append(ENTRY_CLASS)
+          .append("<>(\n")
+          .append("                ").append(spec.entityClassName()).append(".class, ")
+          .append(spec.dataModelClassName()).append(".class, ").append(fixture).append(".class,\n")
+          .append("                ").append(fixture).append("::defaultFixture, ").append(fixture)
+          .append("::withModel, ").append(fixture).append("::build);\n");
+    }
+    out.append("            default -> null;\n")
+        .append("        };\n")
+        .append("    }\n")
+        .append("}\n");
+  }
+
+  /**
+   * Writes the {@code META-INF/services} registration of the index, once its source is written, so that fixtures
+   * of later rounds are no longer registered.
+   */
+  void writeServiceRegistration() {
+    written = true;
+    try {
+      final FileObject service = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+          "META-INF/services/" + INDEX_INTERFACE, originatingElements());
+      try (Writer writer = service.openWriter()) {
+        writer.write(indexClassName + "\n");
+      }
+    } catch (final IOException e) {
+      throw new RuntimeException("Failed to write service registration: " + indexClassName, e);
+    }
+  }
+
+  /**
+   * Checks whether a type can be referenced from the index: it and its enclosing types must be public, or not private
+   * and declared in the package of the index.
+   *
+   * @param type The type, or {@code null} if it could not be resolved.
+   * @return {@code true} if the index can reference the type.
+   */
+  private boolean isVisibleFromIndex(final TypeElement type) {
+    if (type == null) {
+      return false;
+    }
+    final boolean samePackage = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName()
+        .contentEquals(indexPackage);
+    Element current = type;
+    while (current != null && current.getKind() != ElementKind.PACKAGE) {
+      final boolean visible = current.getModifiers().contains(Modifier.PUBLIC)
+          || samePackage && !current.getModifiers().contains(Modifier.PRIVATE);
+      if (!visible) {
+        return false;
+      }
+      current = current.getEnclosingElement();
+    }
+    return true;
+  }
+
+  private void warn(final Element dataSet, final FixtureSpec spec, final String reason) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+        spec.fixtureClassName() + " is not registered in " + indexClassName + ": " + reason + ".", dataSet);
+  }
+}
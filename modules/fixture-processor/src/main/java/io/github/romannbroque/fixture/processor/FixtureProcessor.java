@@ -2,12 +2,16 @@ package io.github.romannbroque.fixture.processor;
 
 import com.google.auto.service.AutoService;
 import io.github.romannbroque.fixture.annotations.GenerateFixture;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
@@ -15,14 +19,53 @@ import javax.lang.model.element.TypeElement;
 
 /**
  * Annotation processor responsible for generating Fixture classes based on the {@link GenerateFixture} annotation.
- * This processor detects annotated classes and delegates the actual class generation to {@link FixtureGenerator}.
+ * This processor detects annotated classes and delegates the actual class generation to the {@link GenerationPipeline}.
+ *
+ * <p>
+ * Supported options:
+ * <ul>
+ *     <li>{@code -Afixture.parallelism=N} - number of threads rendering fixture sources (defaults to 1).</li>
+ *     <li>{@code -Afixture.stats=<path>} - writes a JSON build report with per-round and per-dataset timings,
+ *         counts and sizes, including the bytecode of each fixture when javac runs the processor directly, to the
+ *         given path (disabled by default).</li>
+ *     <li>{@code -Afixture.jfr=true} - makes the generated fixtures emit JFR events around {@code build()},
+ *         {@code defaultFixture()} and {@code invalidFixture()} (disabled by default).</li>
+ *     <li>{@code -Afixture.registry=<class name>} - generates a fixture index with the given qualified name, looked
+ *         up by entity class at runtime (disabled by default). The processor is then aggregating for Gradle
+ *         incremental compilation, instead of isolating.</li>
+ *     <li>{@code -Afixture.getters=false} and {@code -Afixture.withoutMethods=false} - skip the {@code getX()} and
+ *         {@code withoutX()} methods of every fixture (both generated by default).</li>
+ *     <li>{@code -Afixture.compact=true} - emits every fixture without Javadoc and static bulk methods (disabled by
+ *         default).</li>
+ * </ul>
  */
 @AutoService(Processor.class)
-@SupportedAnnotationTypes("io.github.romannbroque.fixture.annotations.GenerateFixture")
+@SupportedAnnotationTypes({
+    "io.github.romannbroque.fixture.annotations.GenerateFixture",
+    "io.github.romannbroque.fixture.annotations.RandomDate",
+    "io.github.romannbroque.fixture.annotations.RandomEnum",
+    "io.github.romannbroque.fixture.annotations.RandomPattern",
+    "io.github.romannbroque.fixture.annotations.RandomRange",
+    "io.github.romannbroque.fixture.annotations.Sequence"
+})
+@SupportedOptions({
+    ProcessorOptions.PARALLELISM,
+    ProcessorOptions.STATS,
+    ProcessorOptions.JFR,
+    ProcessorOptions.REGISTRY,
+    ProcessorOptions.GETTERS,
+    ProcessorOptions.WITHOUT_METHODS,
+    ProcessorOptions.COMPACT
+})
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
 public class FixtureProcessor extends AbstractProcessor {
 
-  private FixtureGenerator fixtureGenerator;
+  private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+  private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+  private GenerationPipeline generationPipeline;
+  private ProcessorStats processorStats;
+  private boolean aggregating;
 
   /**
    * Initializes the processor with the processing environment provided by the compiler.
@@ -32,7 +75,24 @@ public class FixtureProcessor extends AbstractProcessor {
   @Override
   public synchronized void init(final ProcessingEnvironment processingEnv) {
     super.init(processingEnv);
-    this.fixtureGenerator = new FixtureGenerator(processingEnv);
+    final ProcessorOptions options = ProcessorOptions.parse(processingEnv.getOptions());
+    this.generationPipeline = new GenerationPipeline(processingEnv, options);
+    this.processorStats = new ProcessorStats(options.statsReport());
+    this.processorStats.trackClassFiles(processingEnv);
+    this.aggregating = options.registry() != null;
+  }
+
+  /**
+   * Returns the supported options, along with the Gradle incremental processing category of this compilation:
+   * each fixture only originates from its own DataSet, unless the fixture index aggregates all of them.
+   *
+   * @return the supported option names
+   */
+  @Override
+  public Set<String> getSupportedOptions() {
+    final Set<String> options = new HashSet<>(super.getSupportedOptions());
+    options.add(aggregating ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
+    return options;
   }
 
   /**
@@ -44,11 +104,21 @@ public class FixtureProcessor extends AbstractProcessor {
    */
   @Override
   public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    final long start = System.nanoTime();
+    final List<TypeElement> dataSetElements = new ArrayList<>();
     for (final Element element : roundEnv.getElementsAnnotatedWith(GenerateFixture.class)) {
       if (element instanceof final TypeElement typeElement) {
-        fixtureGenerator.generateFixture(typeElement);
+        dataSetElements.add(typeElement);
       }
     }
+    final List<FixtureStats> fixtureStats = dataSetElements.isEmpty()
+        ? generationPipeline.generateIndex()
+        : generationPipeline.generate(dataSetElements);
+    processorStats.recordRound(System.nanoTime() - start, fixtureStats);
+    if (roundEnv.processingOver()) {
+      generationPipeline.close();
+      processorStats.processingOver(processingEnv.getMessager());
+    }
     return true;
   }
 }
@@ -0,0 +1,98 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of everything needed to render a fixture class.
+ * It holds no reference to the element API, so it can be rendered safely outside the compiler thread.
+ *
+ * @param packageName            The package of the dataset, where the fixture is generated.
+ * @param fixtureClassName       The simple name of the generated fixture class.
+ * @param entityClassName        Fully qualified name of the target entity class.
+ * @param entitySimpleName       Simple name of the target entity class.
+ * @param dataModelClassName     Fully qualified name of the data model class.
+ * @param dataModelSimpleName    Simple name of the data model class.
+ * @param baseClassName          Simple name of the dataset class.
+ * @param baseClassQualifiedName Binary name of the dataset class.
+ * @param hasBuildValid          Whether the dataset provides a static {@code buildValid()} method.
+ * @param hasBuildInvalid        Whether the dataset provides a static {@code buildInvalid()} method.
+ * @param prototypeModel         Whether the default model is built once and copied for each fixture.
+ * @param recordModel            Whether the data model is a record, whose components are then held by the fixture
+ *                               itself instead of a mutable model instance.
+ * @param cacheDefault           Whether the default and invalid entities are built once and shared.
+ * @param rowWriter              Whether a JSON Lines and CSV row writer is generated in the fixture.
+ * @param snapshot               Whether a memory-mapped snapshot codec is generated in the fixture.
+ * @param variants               Whether the {@code variants()} API is generated in the fixture.
+ * @param jfrEvents              Whether the fixture emits JFR events around its build and factory methods.
+ * @param getters                Whether a {@code getX()} method is generated per field.
+ * @param withoutMethods         Whether a {@code withoutX()} method is generated per non-primitive field.
+ * @param compact                Whether the fixture is emitted without Javadoc and static bulk methods.
+ * @param entityConstructorArgs  The data model fields passed to the canonical constructor of the record entity, in
+ *                               component order, when {@code constructEntity} is set; empty when the entity is built
+ *                               through the dataset.
+ * @param fields                 The data model fields, in declaration order.
+ */
+record FixtureSpec(String packageName, String fixtureClassName, String entityClassName, String entitySimpleName,
+                   String dataModelClassName, String dataModelSimpleName, String baseClassName,
+                   String baseClassQualifiedName, boolean hasBuildValid, boolean hasBuildInvalid,
+                   boolean prototypeModel, boolean recordModel, boolean cacheDefault, boolean rowWriter,
+                   boolean snapshot, boolean variants, boolean jfrEvents, boolean getters, boolean withoutMethods,
+                   boolean compact, List<String> entityConstructorArgs, List<FieldSpec> fields) {
+
+  /**
+   * Returns the fully qualified name of the generated fixture class.
+   *
+   * @return The qualified fixture class name.
+   */
+  String qualifiedFixtureName() {
+    return packageName + "." + fixtureClassName;
+  }
+
+  /**
+   * Checks whether the entity is built by calling its canonical constructor directly, without the dataset.
+   *
+   * @return {@code true} if the entity is constructed directly by the fixture.
+   */
+  boolean constructsEntity() {
+    return !entityConstructorArgs.isEmpty();
+  }
+
+  /**
+   * Checks whether at least one field of the data model has a random value strategy.
+   *
+   * @return {@code true} if the fixture can be randomized.
+   */
+  boolean hasRandomFields() {
+    for (final FieldSpec field : fields) {
+      if (field.random() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of {@code long} words needed to track the overridden lazy fields.
+   *
+   * @return The number of override tracking words, {@code 0} if no field default is lazy.
+   */
+  int overrideWordCount() {
+    int lazyFieldCount = 0;
+    for (final FieldSpec field : fields) {
+      if (field.lazyDefault()) {
+        lazyFieldCount++;
+      }
+    }
+    return (lazyFieldCount + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  /**
+   * Returns the number of {@code long} words needed to track the fields set through the fixture, reported by the JFR
+   * build events.
+   *
+   * @return The number of customization tracking words, {@code 0} if JFR events are disabled.
+   */
+  int customizedWordCount() {
+    return jfrEvents ? (fields.size() + Long.SIZE - 1) / Long.SIZE : 0;
+  }
+}
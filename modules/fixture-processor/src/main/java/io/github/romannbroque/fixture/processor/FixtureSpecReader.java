@@ -0,0 +1,407 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Reads annotated dataset elements into immutable {@link FixtureSpec} snapshots.
+ *
+ * <p>
+ * The element API of the compiler is not thread-safe: this reader must only be used on the processor thread.
+ * Everything needed afterwards is copied into the spec, so rendering can run anywhere.
+ */
+class FixtureSpecReader {
+
+  private static final Set<String> IMMUTABLE_TYPES = Set.of(String.class.getName(), Boolean.class.getName(),
+      Byte.class.getName(), Short.class.getName(), Character.class.getName(), Integer.class.getName(),
+      Long.class.getName(), Float.class.getName(), Double.class.getName(), "java.math.BigDecimal",
+      "java.math.BigInteger", "java.util.UUID");
+
+  private final ProcessingEnvironment processingEnv;
+  private final TypeMetadataCache metadataCache;
+  private final AnnotationParser annotationParser;
+  private final StringUtils stringUtils;
+  private final ProcessorOptions options;
+
+  FixtureSpecReader(final ProcessingEnvironment processingEnv, final StringUtils stringUtils,
+                    final ProcessorOptions options) {
+    this.processingEnv = processingEnv;
+    this.stringUtils = stringUtils;
+    this.options = options;
+    this.metadataCache = new TypeMetadataCache(processingEnv);
+    this.annotationParser = new AnnotationParser(metadataCache);
+  }
+
+  /**
+   * Reads the fixture to generate for a given annotated dataset element.
+   *
+   * @param baseDataSetElement The annotated dataset element.
+   * @return The fixture unit holding the spec and its originating elements, or {@code null} if an error was reported
+   *     on the dataset.
+   */
+  FixtureUnit read(final TypeElement baseDataSetElement) {
+    final long parsingStart = System.nanoTime();
+    final TypeMetadata dataSet = metadataCache.get(baseDataSetElement);
+    final FixtureAnnotation parsedAnnotation = annotationParser.parseGenerateFixtureAnnotation(baseDataSetElement);
+    final long discoveryStart = System.nanoTime();
+
+    final String entityClassName = parsedAnnotation.entityClassName();
+    final String dataModelClassName = parsedAnnotation.dataModelClassName();
+    final String dataModelSimpleName = stringUtils.getSimpleName(dataModelClassName);
+    final String entitySimpleName = stringUtils.getSimpleName(entityClassName);
+    final String baseClassName = baseDataSetElement.getSimpleName().toString();
+    final String fixtureClassName = entitySimpleName + "Fixture";
+    final String packageName = processingEnv.getElementUtils().getPackageOf(baseDataSetElement).toString();
+    final String baseClassQualifiedName = processingEnv.getElementUtils().getBinaryName(baseDataSetElement).toString();
+    final TypeMetadata dataModel = resolveDataModel(dataSet, dataModelClassName, dataModelSimpleName);
+    final List<FieldSpec> fields = readFields(dataModel, parsedAnnotation.lazyDefaults() ? dataSet : null);
+    final TypeMetadata entity = metadataCache.find(entityClassName);
+    final List<String> entityConstructorArgs = parsedAnnotation.constructEntity()
+        ? resolveEntityConstructorArgs(entity, fields, packageName)
+        : List.of();
+    if (!checkEntityBuild(baseDataSetElement, dataSet, parsedAnnotation.constructEntity(), entityConstructorArgs,
+        entitySimpleName)) {
+      return null;
+    }
+    final boolean hasBuildValid = dataSet.hasStaticNoArgMethod("buildValid");
+    if (parsedAnnotation.prototypeModel() && hasBuildValid
+        && !checkPrototypeFields(baseDataSetElement, dataModelSimpleName, fields)) {
+      return null;
+    }
+    if (parsedAnnotation.cacheDefault()) {
+      checkImmutable(baseDataSetElement, entity, entitySimpleName);
+    }
+    if (parsedAnnotation.snapshot()) {
+      checkSnapshotFields(dataModel, fields);
+    }
+    final long discoveryEnd = System.nanoTime();
+
+    final FixtureSpec spec = new FixtureSpec(packageName, fixtureClassName, entityClassName, entitySimpleName,
+        dataModelClassName, dataModelSimpleName, baseClassName, baseClassQualifiedName,
+        hasBuildValid, dataSet.hasStaticNoArgMethod("buildInvalid"),
+        parsedAnnotation.prototypeModel(), isRecord(dataModel), parsedAnnotation.cacheDefault(),
+        parsedAnnotation.rowWriter(), parsedAnnotation.snapshot(), parsedAnnotation.variants(), options.jfrEvents(),
+        parsedAnnotation.getters() && options.getters(),
+        parsedAnnotation.withoutMethods() && options.withoutMethods(),
+        parsedAnnotation.compact() || options.compact(), entityConstructorArgs, fields);
+    final FixtureStats stats = new FixtureStats(baseDataSetElement.getQualifiedName().toString());
+    stats.recordRead(spec.qualifiedFixtureName(), fields.size(), discoveryStart - parsingStart,
+        discoveryEnd - discoveryStart);
+    return new FixtureUnit(spec, resolveOriginatingElements(baseDataSetElement, dataModel), stats);
+  }
+
+  /**
+   * Reads the fields of the data model.
+   * The fields of a record data model are its components, which the fixture holds itself.
+   *
+   * @param dataModel          The data model metadata, or {@code null} if it could not be resolved.
+   * @param lazyDefaultsSource The dataset declaring the {@code default<Field>()} suppliers when lazy defaults are
+   *                           enabled, {@code null} otherwise.
+   * @return The field snapshots, in declaration order.
+   */
+  private List<FieldSpec> readFields(final TypeMetadata dataModel, final TypeMetadata lazyDefaultsSource) {
+    if (dataModel == null) {
+      return List.of();
+    }
+    if (isRecord(dataModel)) {
+      return readRecordComponents(dataModel, lazyDefaultsSource);
+    }
+    final List<FieldSpec> fields = new ArrayList<>(dataModel.fields().size());
+    int nextOverrideBit = 0;
+    for (final VariableElement field : dataModel.fields()) {
+      if (field.getKind() == ElementKind.FIELD) {
+        final String name = field.getSimpleName().toString();
+        final boolean mutable =
+            !field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.FINAL);
+        final RandomSpec random = annotationParser.parseRandomSpec(field);
+        final SequenceSpec sequence = annotationParser.parseSequenceSpec(field);
+        if ((random != null || sequence != null) && !mutable) {
+          throw new IllegalStateException("Invalid generated value of field '" + name + "' in "
+              + dataModel.element().getSimpleName() + ": the field is static or final.");
+        }
+        final boolean lazyDefault = mutable && (sequence != null || lazyDefaultsSource != null
+            && lazyDefaultsSource.hasStaticNoArgMethod("default" + stringUtils.capitalize(name)));
+        fields.add(new FieldSpec(name, field.asType().toString(), field.asType().getKind().isPrimitive(),
+            isEnum(field.asType()), mutable, isImmutableType(field.asType()), isCopyableType(field.asType()),
+            lazyDefault ? nextOverrideBit++ : -1, random, sequence));
+      }
+    }
+    return List.copyOf(fields);
+  }
+
+  private List<FieldSpec> readRecordComponents(final TypeMetadata dataModel, final TypeMetadata lazyDefaultsSource) {
+    final List<? extends RecordComponentElement> components = dataModel.element().getRecordComponents();
+    final List<FieldSpec> fields = new ArrayList<>(components.size());
+    int nextOverrideBit = 0;
+    for (final RecordComponentElement component : components) {
+      final String name = component.getSimpleName().toString();
+      final SequenceSpec sequence = annotationParser.parseSequenceSpec(component);
+      final boolean lazyDefault = sequence != null || lazyDefaultsSource != null
+          && lazyDefaultsSource.hasStaticNoArgMethod("default" + stringUtils.capitalize(name));
+      fields.add(new FieldSpec(name, component.asType().toString(), component.asType().getKind().isPrimitive(),
+          isEnum(component.asType()), true, isImmutableType(component.asType()), isCopyableType(component.asType()),
+          lazyDefault ? nextOverrideBit++ : -1, annotationParser.parseRandomSpec(component), sequence));
+    }
+    return List.copyOf(fields);
+  }
+
+  /**
+   * Resolves the data model fields passed to the canonical constructor of the entity, so that the fixture can build
+   * it directly. This is only done when the entity is a record whose canonical constructor is accessible from the
+   * fixture, and whose components all match a data model field of the same name and type.
+   *
+   * @param entity      The entity metadata, or {@code null} if it could not be resolved.
+   * @param fields      The data model fields.
+   * @param packageName The package of the generated fixture.
+   * @return The names of the fields in component order, or an empty list if the entity cannot be built directly.
+   */
+  private List<String> resolveEntityConstructorArgs(final TypeMetadata entity, final List<FieldSpec> fields,
+                                                    final String packageName) {
+    if (!isRecord(entity) || !isCanonicalConstructorAccessible(entity.element(), packageName)) {
+      return List.of();
+    }
+    final List<? extends RecordComponentElement> components = entity.element().getRecordComponents();
+    final List<String> args = new ArrayList<>(components.size());
+    for (final RecordComponentElement component : components) {
+      final String name = component.getSimpleName().toString();
+      final String type = component.asType().toString();
+      if (fields.stream().noneMatch(field -> field.name().equals(name) && field.type().equals(type))) {
+        return List.of();
+      }
+      args.add(name);
+    }
+    return List.copyOf(args);
+  }
+
+  private void checkSnapshotFields(final TypeMetadata dataModel, final List<FieldSpec> fields) {
+    for (final FieldSpec field : fields) {
+      if (field.mutable() && !SnapshotCodecGenerator.supports(field)) {
+        throw new IllegalStateException("Invalid snapshot field '" + field.name() + "' in "
+            + dataModel.element().getSimpleName() + ": type " + field.type() + " is not supported.");
+      }
+    }
+  }
+
+  /**
+   * Reports an error when the fixture has no way to build the entity: the dataset declares no {@code build} method,
+   * or the entity cannot be constructed directly although {@code constructEntity} is set.
+   *
+   * @param dataSetElement        The annotated dataset element, on which the error is reported.
+   * @param dataSet               The dataset metadata.
+   * @param constructEntity       Whether the entity is meant to be constructed directly.
+   * @param entityConstructorArgs The resolved arguments of the canonical constructor of the entity.
+   * @param entitySimpleName      The simple name of the entity.
+   * @return {@code true} if the entity can be built, {@code false} if an error was reported.
+   */
+  private boolean checkEntityBuild(final TypeElement dataSetElement, final TypeMetadata dataSet,
+                                   final boolean constructEntity, final List<String> entityConstructorArgs,
+                                   final String entitySimpleName) {
+    if (constructEntity && entityConstructorArgs.isEmpty()) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "constructEntity cannot construct "
+          + entitySimpleName + ": it must be a record with an accessible canonical constructor, whose components "
+          + "all match a data model field of the same name and type.", dataSetElement);
+      return false;
+    }
+    if (!constructEntity && !dataSet.hasStaticMethod("build")) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Missing static build method in "
+          + dataSetElement.getSimpleName() + ": declare one building " + entitySimpleName
+          + " from the data model, or set constructEntity for a record entity.", dataSetElement);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Reports an error when a prototype model built by {@code buildValid()} holds a field whose type is not known to be
+   * immutable. Such a field cannot be copied without sharing its value between fixtures, nor be recomputed for each
+   * fixture without running {@code buildValid()} again. Lazy defaults are computed for each fixture, so they are
+   * allowed.
+   *
+   * @param dataSetElement      The annotated dataset element, on which the error is reported.
+   * @param dataModelSimpleName The simple name of the data model.
+   * @param fields              The data model fields.
+   * @return {@code true} if every copied field can be shared, {@code false} if an error was reported.
+   */
+  private boolean checkPrototypeFields(final TypeElement dataSetElement, final String dataModelSimpleName,
+                                       final List<FieldSpec> fields) {
+    for (final FieldSpec field : fields) {
+      if (field.mutable() && !field.immutableType() && !field.lazyDefault()) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "prototypeModel cannot copy field '"
+            + field.name() + "' of " + dataModelSimpleName + ": type " + field.type()
+            + " is not known to be immutable, so its buildValid() value would be shared by every fixture.",
+            dataSetElement);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Warns when a shared default entity may be mutable. The check is best-effort: records are considered immutable,
+   * as are classes whose instance fields, including inherited ones, are all final. The types of the fields are not
+   * inspected.
+   *
+   * @param dataSetElement   The annotated dataset element, on which the warning is reported.
+   * @param entity           The entity metadata, or {@code null} if it could not be resolved.
+   * @param entitySimpleName The simple name of the entity.
+   */
+  private void checkImmutable(final TypeElement dataSetElement, final TypeMetadata entity,
+                              final String entitySimpleName) {
+    final String mutableField = entity == null ? null : findMutableField(entity.element());
+    if (entity == null || mutableField != null) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "cacheDefault shares a single "
+          + entitySimpleName + " instance, which may be mutable: "
+          + (entity == null ? "the entity could not be resolved." : "field '" + mutableField + "' is not final."),
+          dataSetElement);
+    }
+  }
+
+  private String findMutableField(final TypeElement entity) {
+    if (entity.getKind() == ElementKind.RECORD) {
+      return null;
+    }
+    TypeElement type = entity;
+    while (type != null && !type.getQualifiedName().contentEquals(Object.class.getName())) {
+      for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+        if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.FINAL)) {
+          return field.getSimpleName().toString();
+        }
+      }
+      type = type.getSuperclass() instanceof final DeclaredType superclass
+          ? (TypeElement) superclass.asElement()
+          : null;
+    }
+    return null;
+  }
+
+  private boolean isCanonicalConstructorAccessible(final TypeElement entity, final String packageName) {
+    final boolean samePackage =
+        processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().contentEquals(packageName);
+    final List<String> componentTypes = entity.getRecordComponents().stream()
+        .map(component -> component.asType().toString())
+        .toList();
+    for (final ExecutableElement constructor : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+      final List<String> parameterTypes = constructor.getParameters().stream()
+          .map(parameter -> parameter.asType().toString())
+          .toList();
+      if (parameterTypes.equals(componentTypes)) {
+        return isAccessible(constructor.getModifiers(), samePackage)
+            && isAccessible(entity.getModifiers(), samePackage);
+      }
+    }
+    return false;
+  }
+
+  private boolean isAccessible(final Set<Modifier> modifiers, final boolean samePackage) {
+    return modifiers.contains(Modifier.PUBLIC) || samePackage && !modifiers.contains(Modifier.PRIVATE);
+  }
+
+  /**
+   * Checks whether a type is known to be immutable. Records are considered immutable, as for {@code cacheDefault},
+   * even though their components may not be.
+   *
+   * @param type The type of a data model field.
+   * @return {@code true} if values of the type can be shared safely.
+   */
+  private boolean isImmutableType(final TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return true;
+    }
+    if (!(type instanceof final DeclaredType declaredType)) {
+      return false;
+    }
+    final TypeElement element = (TypeElement) declaredType.asElement();
+    return element.getKind() == ElementKind.ENUM || element.getKind() == ElementKind.RECORD
+        || IMMUTABLE_TYPES.contains(element.getQualifiedName().toString())
+        || processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().contentEquals("java.time");
+  }
+
+  /**
+   * Checks whether values of a type can be copied without sharing mutable state: a copy of a collection of
+   * immutable elements, of an array of immutable elements or of a date shares nothing mutable with the original.
+   *
+   * @param type The type of a data model field.
+   * @return {@code true} if {@link ModelFieldGenerator#copyExpression} copies values of the type.
+   */
+  private boolean isCopyableType(final TypeMirror type) {
+    if (type instanceof final ArrayType arrayType) {
+      return isImmutableType(arrayType.getComponentType());
+    }
+    if (!(type instanceof final DeclaredType declaredType)) {
+      return false;
+    }
+    final TypeElement element = (TypeElement) declaredType.asElement();
+    return ModelFieldGenerator.copies(element.getQualifiedName().toString())
+        && declaredType.getTypeArguments().size() == element.getTypeParameters().size()
+        && declaredType.getTypeArguments().stream().allMatch(this::isImmutableType);
+  }
+
+  private boolean isEnum(final TypeMirror type) {
+    return type instanceof final DeclaredType declaredType && declaredType.asElement().getKind() == ElementKind.ENUM;
+  }
+
+  private boolean isRecord(final TypeMetadata type) {
+    return type != null && type.element().getKind() == ElementKind.RECORD;
+  }
+
+  /**
+   * Resolves the data model metadata, falling back to a nested class of the dataset with the same simple name
+   * when the data model cannot be found by its canonical name.
+   *
+   * @param dataSet             The dataset metadata.
+   * @param dataModelClassName  The canonical name of the data model.
+   * @param dataModelSimpleName The simple name of the data model.
+   * @return The data model metadata, or {@code null} if it cannot be resolved.
+   */
+  private TypeMetadata resolveDataModel(final TypeMetadata dataSet, final String dataModelClassName,
+                                        final String dataModelSimpleName) {
+    final TypeMetadata dataModel = metadataCache.find(dataModelClassName);
+    if (dataModel != null) {
+      return dataModel;
+    }
+    final TypeElement nestedDataModel = dataSet.findNestedType(dataModelSimpleName);
+    return nestedDataModel == null ? null : metadataCache.get(nestedDataModel);
+  }
+
+  /**
+   * Resolves the elements the generated fixture originates from, as required by Gradle isolating processors.
+   * The data model is only added when it lives in the same top-level type as the dataset: Gradle expects a single
+   * originating top-level type per generated file, and an external data model is already tracked as a compile
+   * dependency of the dataset.
+   *
+   * @param baseDataSetElement The annotated dataset element.
+   * @param dataModel          The resolved data model metadata, or {@code null} if it could not be resolved.
+   * @return The originating elements of the generated fixture.
+   */
+  private List<Element> resolveOriginatingElements(final TypeElement baseDataSetElement,
+                                                   final TypeMetadata dataModel) {
+    if (dataModel != null
+        && topLevelTypeOf(dataModel.element()).equals(topLevelTypeOf(baseDataSetElement))) {
+      return List.of(baseDataSetElement, dataModel.element());
+    }
+    return List.of(baseDataSetElement);
+  }
+
+  private Element topLevelTypeOf(final Element element) {
+    Element current = element;
+    while (current.getEnclosingElement() != null
+        && current.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      current = current.getEnclosingElement();
+    }
+    return current;
+  }
+}
@@ -0,0 +1,113 @@
+package io.github.romannbroque.fixture.processor;
+
+/**
+ * Statistics collected while generating a single fixture.
+ *
+ * <p>
+ * An instance is only updated by one thread at a time: by the processor thread while reading and writing,
+ * and by the rendering thread in between, the hand-off being ordered by the rendering task.
+ */
+final class FixtureStats {
+
+  private final String dataSetName;
+  private String fixtureName;
+  private long annotationParsingNanos;
+  private long fieldDiscoveryNanos;
+  private long fixtureRenderingNanos;
+  private long fieldRenderingNanos;
+  private long writeNanos;
+  private int fieldCount;
+  private int methodCount;
+  private long bytes;
+  private int classFiles;
+  private long bytecodeBytes;
+  private int bytecodeMethods;
+
+  FixtureStats(final String dataSetName) {
+    this.dataSetName = dataSetName;
+  }
+
+  void recordRead(final String fixtureName, final int fieldCount, final long annotationParsingNanos,
+                  final long fieldDiscoveryNanos) {
+    this.fixtureName = fixtureName;
+    this.fieldCount = fieldCount;
+    this.annotationParsingNanos += annotationParsingNanos;
+    this.fieldDiscoveryNanos += fieldDiscoveryNanos;
+  }
+
+  void recordRendering(final long fixtureRenderingNanos, final long fieldRenderingNanos) {
+    this.fixtureRenderingNanos += fixtureRenderingNanos;
+    this.fieldRenderingNanos += fieldRenderingNanos;
+  }
+
+  void recordMethodCount(final int methodCount) {
+    this.methodCount = methodCount;
+  }
+
+  void recordWrite(final long writeNanos, final long bytes) {
+    this.writeNanos += writeNanos;
+    this.bytes = bytes;
+  }
+
+  void recordClassFile(final long bytecodeBytes, final int bytecodeMethods) {
+    this.classFiles++;
+    this.bytecodeBytes += bytecodeBytes;
+    this.bytecodeMethods += bytecodeMethods;
+  }
+
+  String dataSetName() {
+    return dataSetName;
+  }
+
+  String fixtureName() {
+    return fixtureName;
+  }
+
+  long annotationParsingNanos() {
+    return annotationParsingNanos;
+  }
+
+  long fieldDiscoveryNanos() {
+    return fieldDiscoveryNanos;
+  }
+
+  long fixtureRenderingNanos() {
+    return fixtureRenderingNanos;
+  }
+
+  long fieldRenderingNanos() {
+    return fieldRenderingNanos;
+  }
+
+  long renderingNanos() {
+    return fixtureRenderingNanos + fieldRenderingNanos;
+  }
+
+  long writeNanos() {
+    return writeNanos;
+  }
+
+  int fieldCount() {
+    return fieldCount;
+  }
+
+  int methodCount() {
+    return methodCount;
+  }
+
+  long bytes() {
+    return bytes;
+  }
+
+  int classFiles() {
+    return classFiles;
+  }
+
+  long bytecodeBytes() {
+    return bytecodeBytes;
+  }
+
+  int bytecodeMethods() {
+    return bytecodeMethods;
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.List;
+import javax.lang.model.element.Element;
+
+/**
+ * A fixture to generate: the spec rendered off the compiler thread, and the originating elements
+ * handed to the {@link javax.annotation.processing.Filer} on the compiler thread.
+ *
+ * @param spec                The immutable fixture spec.
+ * @param originatingElements The elements the generated fixture originates from.
+ * @param stats               The statistics collected while generating the fixture.
+ */
+record FixtureUnit(FixtureSpec spec, List<Element> originatingElements, FixtureStats stats) {
+}
@@ -0,0 +1,235 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Runs the generation of the fixtures of a processing round in three phases.
+ *
+ * <ol>
+ *     <li>Datasets are read into immutable {@link FixtureSpec} snapshots on the processor thread,
+ *         since the element API of the compiler is not thread-safe.</li>
+ *     <li>Sources are rendered from the specs, on a bounded fork-join pool when more than one thread is configured.</li>
+ *     <li>Sources are written through the {@link javax.annotation.processing.Filer} on the processor thread,
+ *         ordered by fixture name.</li>
+ * </ol>
+ *
+ * <p>
+ * Each source is rendered into a reused in-memory buffer before its file is created, so a fixture whose rendering
+ * fails is reported through the {@link javax.annotation.processing.Messager} against its DataSet and never leaves a
+ * truncated file behind. With a single thread, only one source is held in memory at a time.
+ * Rendering only depends on the spec, so the generated sources are identical whatever the number of threads.
+ *
+ * <p>
+ * When a fixture registry is configured, the fixtures of every round are also registered in the
+ * {@link FixtureIndexGenerator}. The index is rendered and written the same way once all the DataSets have been
+ * generated, and reported in the statistics like a fixture.
+ */
+final class GenerationPipeline implements AutoCloseable {
+
+  private static final int MAX_RETAINED_BUFFER_CAPACITY = 1 << 20;
+  private static final int WRITE_BUFFER_SIZE = 1 << 13;
+
+  private final ProcessingEnvironment processingEnv;
+  private final FixtureSpecReader specReader;
+  private final FixtureGenerator fixtureGenerator;
+  private final int parallelism;
+  private final boolean compact;
+  private final boolean countMethods;
+  private final FixtureIndexGenerator indexGenerator;
+  private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+  private ForkJoinPool renderPool;
+
+  GenerationPipeline(final ProcessingEnvironment processingEnv, final ProcessorOptions options) {
+    final StringUtils stringUtils = new StringUtils();
+    this.processingEnv = processingEnv;
+    this.specReader = new FixtureSpecReader(processingEnv, stringUtils, options);
+    this.fixtureGenerator = new FixtureGenerator(stringUtils);
+    this.parallelism = options.parallelism();
+    this.compact = options.compact();
+    this.countMethods = options.statsReport() != null;
+    this.indexGenerator = options.registry() == null ? null : new FixtureIndexGenerator(processingEnv,
+        options.registry());
+  }
+
+  /**
+   * Generates the fixtures of the given annotated dataset elements.
+   *
+   * @param dataSetElements The annotated dataset elements of the round.
+   * @return The statistics of the generated fixtures, ordered by fixture name.
+   */
+  List<FixtureStats> generate(final Collection<TypeElement> dataSetElements) {
+    final List<FixtureUnit> units = new ArrayList<>(dataSetElements.size());
+    for (final TypeElement dataSetElement : dataSetElements) {
+      final FixtureUnit unit = specReader.read(dataSetElement);
+      if (unit != null) {
+        units.add(unit);
+      }
+    }
+    units.sort(Comparator.comparing(unit -> unit.spec().qualifiedFixtureName()));
+    if (indexGenerator != null) {
+      units.forEach(indexGenerator::register);
+    }
+
+    final List<FixtureStats> stats = new ArrayList<>(units.size());
+    if (parallelism == 1 || units.size() < 2) {
+      for (final FixtureUnit unit : units) {
+        final String source = renderOrReport(unit, () -> render(unit));
+        if (source != null) {
+          writeSource(unit, source);
+          stats.add(unit.stats());
+        }
+      }
+      return stats;
+    }
+
+    final List<ForkJoinTask<String>> renderings = new ArrayList<>(units.size());
+    for (final FixtureUnit unit : units) {
+      renderings.add(renderPool().submit(() -> render(unit)));
+    }
+    for (int i = 0; i < units.size(); i++) {
+      final FixtureUnit unit = units.get(i);
+      final String source = renderOrReport(unit, renderings.get(i)::join);
+      if (source != null) {
+        writeSource(unit, source);
+        stats.add(unit.stats());
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Writes the fixture index, if a registry is configured and it was not written yet.
+   * It must be called in a round that generates no fixture, so that the index holds all the fixtures.
+   *
+   * @return The statistics of the written index, or an empty list if nothing was written.
+   */
+  List<FixtureStats> generateIndex() {
+    if (indexGenerator == null || indexGenerator.written()) {
+      return List.of();
+    }
+    final String indexClassName = indexGenerator.indexClassName();
+    final FixtureStats stats = new FixtureStats(indexClassName);
+    stats.recordRead(indexClassName, 0, 0L, 0L);
+    final long start = System.nanoTime();
+    final StringBuilder buffer = new StringBuilder(indexGenerator.estimateSourceLength());
+    indexGenerator.render(new SourceEmitter(buffer, compact));
+    stats.recordRendering(System.nanoTime() - start, 0L);
+    final String source = buffer.toString();
+    if (countMethods) {
+      stats.recordMethodCount(SourceEmitter.countMethods(source));
+    }
+    writeSource(indexClassName, indexGenerator.originatingElements(), stats, source);
+    indexGenerator.writeServiceRegistration();
+    return List.of(stats);
+  }
+
+  /**
+   * Shuts down the rendering pool, if it was started.
+   */
+  @Override
+  public void close() {
+    if (renderPool != null) {
+      renderPool.shutdown();
+      renderPool = null;
+    }
+  }
+
+  private ForkJoinPool renderPool() {
+    if (renderPool == null) {
+      renderPool = new ForkJoinPool(parallelism);
+    }
+    return renderPool;
+  }
+
+  /**
+   * Renders a fixture source into the buffer of the current thread, pre-sized for the spec and reused across
+   * renderings. The methods of the source are counted when the build report is enabled.
+   *
+   * @param unit The fixture unit.
+   * @return The rendered source.
+   */
+  private String render(final FixtureUnit unit) {
+    final FixtureSpec spec = unit.spec();
+    StringBuilder buffer = buffers.get();
+    if (buffer == null) {
+      buffer = new StringBuilder(fixtureGenerator.estimateSourceLength(spec));
+      buffers.set(buffer);
+    }
+    buffer.setLength(0);
+    buffer.ensureCapacity(fixtureGenerator.estimateSourceLength(spec));
+    fixtureGenerator.generateFixture(spec, new SourceEmitter(buffer, spec.compact()), unit.stats());
+    final String source = buffer.toString();
+    if (countMethods) {
+      unit.stats().recordMethodCount(SourceEmitter.countMethods(source));
+    }
+    if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+      buffers.remove();
+    }
+    return source;
+  }
+
+  /**
+   * Obtains the rendered source of a fixture, reporting a rendering failure as an error on its DataSet.
+   *
+   * @param unit      The fixture unit.
+   * @param rendering The rendering of the fixture source.
+   * @return The rendered source, or {@code null} if the rendering failed and an error was reported.
+   */
+  private String renderOrReport(final FixtureUnit unit, final Supplier<String> rendering) {
+    try {
+      return rendering.get();
+    } catch (final RuntimeException e) {
+      final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate "
+          + unit.spec().qualifiedFixtureName() + ": " + cause, unit.originatingElements().get(0));
+      return null;
+    }
+  }
+
+  private void writeSource(final FixtureUnit unit, final String source) {
+    writeSource(unit.spec().qualifiedFixtureName(), unit.originatingElements().toArray(new Element[0]),
+        unit.stats(), source);
+  }
+
+  /**
+   * Creates a source file and writes its rendered content through a buffered writer.
+   *
+   * @param qualifiedName       The qualified name of the generated class.
+   * @param originatingElements The elements the generated class originates from.
+   * @param stats               The statistics recording the write.
+   * @param source              The rendered source of the class.
+   */
+  private void writeSource(final String qualifiedName, final Element[] originatingElements, final FixtureStats stats,
+                           final String source) {
+    final long start = System.nanoTime();
+    try {
+      final JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements);
+      final SourceEmitter emitter;
+      try (Writer writer = new BufferedWriter(file.openWriter(), WRITE_BUFFER_SIZE)) {
+        emitter = new SourceEmitter(writer);
+        emitter.append(source);
+      }
+      stats.recordWrite(System.nanoTime() - start, emitter.bytesEmitted());
+    } catch (final IOException e) {
+      throw new RuntimeException("Failed to write class: " + qualifiedName, e);
+    } catch (final UncheckedIOException e) {
+      throw new RuntimeException("Failed to write class: " + qualifiedName, e.getCause());
+    }
+  }
+}
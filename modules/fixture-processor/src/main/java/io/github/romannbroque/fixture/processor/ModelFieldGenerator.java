@@ -1,7 +1,7 @@
 package io.github.romannbroque.fixture.processor;
 
-import javax.lang.model.element.Element;
-import javax.lang.model.element.ElementKind;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Code generator responsible for producing methods related to the fields of the data model.
@@ -9,9 +9,30 @@ import javax.lang.model.element.ElementKind;
  * <p>
  * This generator creates fluent setters (withX), nullifying setters (withoutX),
  * and getters (getX) for each field in the data model class.
+ *
+ * <p>
+ * When the default value of a field is computed lazily by a {@code default<Field>()} supplier of the dataset,
+ * the setters also record that the field was overridden, and the getter computes the default on first access.
+ *
+ * <p>
+ * When the fixture emits JFR events, the setters also record that the field was customized, so that the build event
+ * reports the number of fields set through the fixture.
  */
 class ModelFieldGenerator {
 
+  private static final String DATE = "java.util.Date";
+  private static final Map<String, String> COPY_CLASSES = Map.ofEntries(
+      Map.entry("java.util.Collection", "java.util.ArrayList"),
+      Map.entry("java.util.List", "java.util.ArrayList"),
+      Map.entry("java.util.ArrayList", "java.util.ArrayList"),
+      Map.entry("java.util.LinkedList", "java.util.LinkedList"),
+      Map.entry("java.util.Set", "java.util.LinkedHashSet"),
+      Map.entry("java.util.HashSet", "java.util.HashSet"),
+      Map.entry("java.util.LinkedHashSet", "java.util.LinkedHashSet"),
+      Map.entry("java.util.Map", "java.util.LinkedHashMap"),
+      Map.entry("java.util.HashMap", "java.util.HashMap"),
+      Map.entry("java.util.LinkedHashMap", "java.util.LinkedHashMap"));
+
   private final StringUtils stringUtils;
 
   ModelFieldGenerator(final StringUtils stringUtils) {
@@ -19,77 +40,445 @@ class ModelFieldGenerator {
   }
 
   /**
-   * Generates with/without/get methods for a given model field.
+   * Generates with/without/get methods for a given model field, the without and get methods being skipped when
+   * disabled in the spec.
    *
-   * @param builder          The StringBuilder used to write the generated code.
-   * @param field            The element representing the field.
-   * @param fixtureClassName The name of the generated fixture class.
+   * @param out   The emitter used to write the generated code.
+   * @param field The snapshot of the field.
+   * @param index The index of the field in the data model.
+   * @param spec  The spec of the generated fixture.
    */
-  void generateFieldMethods(final StringBuilder builder, final Element field, final String fixtureClassName) {
-    if (field.getKind() != ElementKind.FIELD) {
-      return;
-    }
-
-    final String type = field.asType().toString();
-    final String name = field.getSimpleName().toString();
-    final String cap = stringUtils.capitalize(name);
+  void generateFieldMethods(final SourceEmitter out, final FieldSpec field, final int index, final FixtureSpec spec) {
+    final String cap = stringUtils.capitalize(field.name());
+    final String access = fieldAccess(spec, field);
+    final String customizedMark = spec.jfrEvents()
+        ? "        " + customizedWord(index / Long.SIZE) + " |= 1L << " + (index % Long.SIZE) + ";\n"
+        : "";
 
     // Generate "withX" method
-    generateWithMethod(builder, fixtureClassName, type, name, cap);
+    generateWithMethod(out, spec.fixtureClassName(), field, access, cap, customizedMark);
 
     // Generate "withoutX" method only if the type is not primitive
-    if (!field.asType().getKind().isPrimitive()) {
-      generateWithoutMethod(builder, fixtureClassName, name, cap);
+    if (!field.primitive() && spec.withoutMethods()) {
+      generateWithoutMethod(out, spec.fixtureClassName(), field, access, cap, customizedMark);
     }
 
     // Generate "getX" method
-    generateGetMethod(builder, type, name, cap);
+    if (spec.getters()) {
+      generateGetMethod(out, spec, field, access, cap);
+    }
+  }
+
+  /**
+   * Returns the expression accessing the current value of a field in the fixture: the field of the mutable model,
+   * or the fixture field holding the component of a record model.
+   *
+   * @param spec  The spec of the generated fixture.
+   * @param field The snapshot of the field.
+   * @return The field access expression.
+   */
+  String fieldAccess(final FixtureSpec spec, final FieldSpec field) {
+    return (spec.recordModel() ? "this." : "model.") + field.name();
+  }
+
+  /**
+   * Returns the expression building the default model of the fixture: {@code buildValid()} when the dataset provides
+   * it, the default constructor of the data model otherwise.
+   *
+   * @param spec The spec of the generated fixture.
+   * @return The default model creation expression.
+   */
+  String defaultModelCall(final FixtureSpec spec) {
+    if (spec.hasBuildValid()) {
+      return spec.baseClassName() + ".buildValid()";
+    }
+    return "new " + spec.dataModelSimpleName() + "()";
+  }
+
+  /**
+   * Generates the statement assigning the lazily computed default of a field, if it was not overridden.
+   *
+   * @param out   The emitter to write into.
+   * @param field The snapshot of a field with a lazy default.
+   * @param spec  The spec of the generated fixture.
+   */
+  void generateLazyDefault(final SourceEmitter out, final FieldSpec field, final FixtureSpec spec) {
+    out.append("        if ((").append(overrideWord(field)).append(" & ").append(overrideMask(field))
+        .append(") == 0) {\n");
+    out.append("            ").append(fieldAccess(spec, field)).append(" = ");
+    if (field.sequence() != null) {
+      out.append("next").append(stringUtils.capitalize(field.name())).append("();\n");
+    } else {
+      out.append(spec.baseClassName()).append(".default").append(stringUtils.capitalize(field.name()))
+          .append("();\n");
+    }
+    out.append("        }\n");
+  }
+
+  /**
+   * Returns the name of the fixture field holding the override bit of a field.
+   *
+   * @param field The snapshot of a field with a lazy default.
+   * @return The name of the override tracking word.
+   */
+  String overrideWord(final FieldSpec field) {
+    return overrideWord(field.overrideBit() / Long.SIZE);
+  }
+
+  /**
+   * Returns the name of the fixture field holding the given override tracking word.
+   *
+   * @param wordIndex The index of the override tracking word.
+   * @return The name of the override tracking word.
+   */
+  String overrideWord(final int wordIndex) {
+    return "overridden" + wordIndex;
+  }
+
+  /**
+   * Returns the name of the fixture field holding the given customization tracking word, reported by JFR events.
+   *
+   * @param wordIndex The index of the customization tracking word.
+   * @return The name of the customization tracking word.
+   */
+  String customizedWord(final int wordIndex) {
+    return "customized" + wordIndex;
+  }
+
+  /**
+   * Generates the {@code randomize} method, drawing a value for each field with a random strategy, along with the
+   * {@code randomFixture} factory and the constants and helpers the strategies rely on.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  void generateRandomize(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    for (final FieldSpec field : spec.fields()) {
+      if (field.random() instanceof RandomSpec.Choice choice) {
+        generateChoiceConstant(out, field, choice);
+      } else if (field.random() instanceof RandomSpec.Pattern pattern) {
+        generatePatternMethod(out, field, pattern);
+      }
+    }
+
+    out.javadoc("    ",
+            "Creates a fixture whose randomized fields are drawn from the given random generator.",
+            "@param random The random generator to draw the values from.",
+            "@return A new instance of " + fixtureClassName)
+        .append("    public static ").append(fixtureClassName)
+        .append(" randomFixture(final java.util.SplittableRandom random) {\n")
+        .append("        return new ").append(fixtureClassName).append("().randomize(random);\n")
+        .append("    }\n\n");
+
+    out.javadoc("    ",
+            "Draws a new value for each randomized field, the other fields being left unchanged.",
+            "@param random The random generator to draw the values from.",
+            "@return This fixture.")
+        .append("    public ").append(fixtureClassName)
+        .append(" randomize(final java.util.SplittableRandom random) {\n");
+    for (final FieldSpec field : spec.fields()) {
+      if (field.random() != null) {
+        out.append("        ").append(fieldAccess(spec, field)).append(" = ").append(randomValue(field)).append(";\n");
+        generateOverrideMark(out, field);
+      }
+    }
+    out.append("        return this;\n")
+        .append("    }\n\n");
+  }
+
+  /**
+   * Returns the expression drawing a random value for a field. Primitive fields are drawn without boxing.
+   *
+   * @param field The snapshot of a randomized field.
+   * @return The random value expression.
+   */
+  private String randomValue(final FieldSpec field) {
+    return switch (field.random()) {
+      case RandomSpec.Range range -> randomNumber(field.type(), range);
+      case RandomSpec.Pattern pattern -> "random" + stringUtils.capitalize(field.name()) + "(random)";
+      case RandomSpec.Choice choice ->
+          choiceConstant(field) + "[random.nextInt(" + choice.constants().size() + ")]";
+      case RandomSpec.Window window -> switch (field.type()) {
+        case "java.time.LocalDate" -> "java.time.LocalDate.ofEpochDay(" + nextLong(window.from(), window.to()) + ")";
+        case "java.time.Instant" -> "java.time.Instant.ofEpochSecond(" + nextLong(window.from(), window.to()) + ")";
+        default -> "java.time.LocalDateTime.ofEpochSecond(" + nextLong(window.from(), window.to())
+            + ", 0, java.time.ZoneOffset.UTC)";
+      };
+    };
+  }
+
+  private String randomNumber(final String type, final RandomSpec.Range range) {
+    return switch (type) {
+      case "long", "java.lang.Long" -> nextLong(range.min(), range.max());
+      case "double", "java.lang.Double" -> nextDouble(range);
+      case "float", "java.lang.Float" -> "(float) " + nextDouble(range);
+      case "short", "java.lang.Short" -> "(short) " + nextInt(range);
+      case "byte", "java.lang.Byte" -> "(byte) " + nextInt(range);
+      default -> nextInt(range);
+    };
+  }
+
+  private String nextInt(final RandomSpec.Range range) {
+    if (range.max() > Integer.MAX_VALUE) {
+      return "(int) " + nextLong(range.min(), range.max());
+    }
+    return "random.nextInt(" + range.min() + ", " + range.max() + ")";
+  }
+
+  private String nextLong(final long min, final long max) {
+    return "random.nextLong(" + min + "L, " + max + "L)";
+  }
+
+  private String nextDouble(final RandomSpec.Range range) {
+    return "random.nextDouble(" + range.min() + ".0, " + range.max() + ".0)";
+  }
+
+  private String choiceConstant(final FieldSpec field) {
+    return constantName(field, "_CHOICES");
+  }
+
+  private String constantName(final FieldSpec field, final String suffix) {
+    return field.name().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT) + suffix;
+  }
+
+  /**
+   * Generates the sequence of a field: a lock-free counter shared by all threads, from which each thread reserves
+   * blocks of values, and the method drawing the next value from the block of the current thread.
+   *
+   * @param out   The emitter to write into.
+   * @param field The snapshot of a field with a sequence.
+   */
+  void generateSequence(final SourceEmitter out, final FieldSpec field) {
+    final SequenceSpec sequence = field.sequence();
+    final String counter = constantName(field, "_SEQUENCE");
+    final String block = constantName(field, "_BLOCK");
+    final String blockSize = sequence.blockSize() + "L";
+    out.append("    private static final java.util.concurrent.atomic.AtomicLong ").append(counter)
+        .append(" =\n")
+        .append("        new java.util.concurrent.atomic.AtomicLong(").append(String.valueOf(sequence.start()))
+        .append("L);\n\n")
+        .append("    private static final ThreadLocal<long[]> ").append(block)
+        .append(" = ThreadLocal.withInitial(() -> new long[2]);\n\n");
+
+    out.append("    private static ").append(field.type()).append(" next").append(stringUtils.capitalize(field.name()))
+        .append("() {\n")
+        .append("        final long[] block = ").append(block).append(".get();\n")
+        .append("        if (block[0] == block[1]) {\n")
+        .append("            block[0] = ").append(counter).append(".getAndAdd(").append(blockSize).append(");\n")
+        .append("            block[1] = block[0] + ").append(blockSize).append(";\n")
+        .append("        }\n")
+        .append("        return ").append(sequenceValue(field.type(), sequence)).append(";\n")
+        .append("    }\n\n");
+  }
+
+  private String sequenceValue(final String type, final SequenceSpec sequence) {
+    return switch (type) {
+      case "int", "java.lang.Integer" -> "(int) block[0]++";
+      case "long", "java.lang.Long" -> "block[0]++";
+      default -> formattedSequenceValue(sequence);
+    };
+  }
+
+  private String formattedSequenceValue(final SequenceSpec sequence) {
+    if (sequence.prefix().isEmpty() && sequence.suffix().isEmpty()) {
+      return "String.valueOf(block[0]++)";
+    }
+    final StringBuilder value = new StringBuilder();
+    if (!sequence.prefix().isEmpty()) {
+      value.append('"').append(escape(sequence.prefix(), '"')).append("\" + ");
+    }
+    value.append("block[0]++");
+    if (!sequence.suffix().isEmpty()) {
+      value.append(" + \"").append(escape(sequence.suffix(), '"')).append('"');
+    }
+    return value.toString();
+  }
+
+  private void generateChoiceConstant(final SourceEmitter out, final FieldSpec field,
+                                      final RandomSpec.Choice choice) {
+    out.append("    private static final ").append(field.type()).append("[] ").append(choiceConstant(field))
+        .append(" = {");
+    for (int index = 0; index < choice.constants().size(); index++) {
+      out.append(index == 0 ? "" : ", ").append(field.type()).append(".").append(choice.constants().get(index));
+    }
+    out.append("};\n\n");
+  }
+
+  /**
+   * Generates the helper drawing a string matching a pattern, one character at a time into a fixed-size array.
+   *
+   * @param out     The emitter to write into.
+   * @param field   The snapshot of the randomized field.
+   * @param pattern The parsed pattern.
+   */
+  private void generatePatternMethod(final SourceEmitter out, final FieldSpec field,
+                                     final RandomSpec.Pattern pattern) {
+    out.append("    private static String random").append(stringUtils.capitalize(field.name()))
+        .append("(final java.util.SplittableRandom random) {\n");
+    if (pattern.maxLength() == 0) {
+      out.append("        return \"\";\n")
+          .append("    }\n\n");
+      return;
+    }
+    out.append("        final char[] chars = new char[").append(String.valueOf(pattern.maxLength())).append("];\n")
+        .append("        int length = 0;\n");
+    for (final RandomSpec.PatternToken token : pattern.tokens()) {
+      final String character = token.alphabet().length() == 1
+          ? "'" + escape(token.alphabet().charAt(0), '\'') + "'"
+          : "\"" + escape(token.alphabet(), '"') + "\".charAt(random.nextInt(" + token.alphabet().length() + "))";
+      if (token.minCount() == 1 && token.maxCount() == 1) {
+        out.append("        chars[length++] = ").append(character).append(";\n");
+      } else {
+        out.append("        for (int index = 0, count = ")
+            .append(token.minCount() == token.maxCount()
+                ? String.valueOf(token.minCount())
+                : "random.nextInt(" + token.minCount() + ", " + (token.maxCount() + 1) + ")")
+            .append("; index < count; index++) {\n")
+            .append("            chars[length++] = ").append(character).append(";\n")
+            .append("        }\n");
+      }
+    }
+    out.append("        return new String(chars, 0, length);\n")
+        .append("    }\n\n");
+  }
+
+  private String escape(final String value, final char quote) {
+    final StringBuilder escaped = new StringBuilder(value.length());
+    for (int index = 0; index < value.length(); index++) {
+      escaped.append(escape(value.charAt(index), quote));
+    }
+    return escaped.toString();
+  }
+
+  private String escape(final char character, final char quote) {
+    if (character == quote || character == '\\') {
+      return "\\" + character;
+    }
+    if (character < ' ' || character > '~') {
+      return String.format("\\u%04x", (int) character);
+    }
+    return String.valueOf(character);
+  }
+
+  private String overrideMask(final FieldSpec field) {
+    return "(1L << " + (field.overrideBit() % Long.SIZE) + ")";
+  }
+
+  private void generateOverrideMark(final SourceEmitter out, final FieldSpec field) {
+    if (field.lazyDefault()) {
+      out.append("        ").append(overrideWord(field)).append(" |= ").append(overrideMask(field)).append(";\n");
+    }
+  }
+
+  /**
+   * Checks whether {@link #copyExpression} can copy values of a class, provided its type arguments are immutable.
+   *
+   * @param qualifiedName The qualified name of the class.
+   * @return {@code true} for the supported collection and map interfaces and classes, and {@code java.util.Date}.
+   */
+  static boolean copies(final String qualifiedName) {
+    return COPY_CLASSES.containsKey(qualifiedName) || DATE.equals(qualifiedName);
+  }
+
+  /**
+   * Returns the expression copying the value of a copyable field: collections and maps are copied into a new
+   * instance of their own class, or of a general-purpose implementation of their interface, arrays and dates are
+   * cloned. A {@code null} value stays {@code null}.
+   *
+   * @param field The snapshot of a copyable field.
+   * @param value The expression reading the value to copy.
+   * @return The copy expression.
+   */
+  String copyExpression(final FieldSpec field, final String value) {
+    final String type = field.type();
+    final String copy;
+    if (type.endsWith("[]")) {
+      copy = value + ".clone()";
+    } else if (DATE.equals(type)) {
+      copy = "(" + DATE + ") " + value + ".clone()";
+    } else {
+      final int typeArguments = type.indexOf('<');
+      copy = "new " + COPY_CLASSES.get(typeArguments < 0 ? type : type.substring(0, typeArguments)) + "<>("
+          + value + ")";
+    }
+    return value + " == null ? null : " + copy;
+  }
+
+  /**
+   * Generates the statement copying a field from one model to another. Fields that cannot be assigned are skipped.
+   *
+   * @param out    The emitter to write into.
+   * @param field  The snapshot of the field.
+   * @param target The name of the variable holding the model to write.
+   * @param source The name of the variable holding the model to read.
+   */
+  void generateFieldCopy(final SourceEmitter out, final FieldSpec field, final String target, final String source) {
+    if (field.mutable()) {
+      out.append("        ").append(target).append(".").append(field.name()).append(" = ")
+          .append(source).append(".").append(field.name()).append(";\n");
+    }
   }
 
   /**
    * Generates the fluent "withX" method.
    *
-   * @param builder          The StringBuilder to write into.
+   * @param out              The emitter to write into.
    * @param fixtureClassName The fixture class name.
-   * @param type             The type of the field.
-   * @param name             The field name.
+   * @param field            The snapshot of the field.
+   * @param access           The expression accessing the field.
    * @param cap              The capitalized field name.
+   * @param customizedMark   The statement recording that the field was customized, empty without JFR events.
    */
-  private void generateWithMethod(final StringBuilder builder, final String fixtureClassName,
-                                  final String type, final String name, final String cap) {
-    builder.append("    public ").append(fixtureClassName).append(" with").append(cap)
-        .append("(").append(type).append(" value) {\n");
-    builder.append("        model.").append(name).append(" = value;\n");
-    builder.append("        return this;\n    }\n\n");
+  private void generateWithMethod(final SourceEmitter out, final String fixtureClassName,
+                                  final FieldSpec field, final String access, final String cap,
+                                  final String customizedMark) {
+    out.append("    public ").append(fixtureClassName).append(" with").append(cap)
+        .append("(").append(field.type()).append(" value) {\n");
+    out.append("        ").append(access).append(" = value;\n");
+    generateOverrideMark(out, field);
+    out.append(customizedMark);
+    out.append("        return this;\n    }\n\n");
   }
 
   /**
    * Generates the "withoutX" method, setting the field to null.
    *
-   * @param builder          The StringBuilder to write into.
+   * @param out              The emitter to write into.
    * @param fixtureClassName The fixture class name.
-   * @param name             The field name.
+   * @param field            The snapshot of the field.
+   * @param access           The expression accessing the field.
    * @param cap              The capitalized field name.
+   * @param customizedMark   The statement recording that the field was customized, empty without JFR events.
    */
-  private void generateWithoutMethod(final StringBuilder builder, final String fixtureClassName,
-                                     final String name, final String cap) {
-    builder.append("    public ").append(fixtureClassName).append(" without").append(cap).append("() {\n");
-    builder.append("        model.").append(name).append(" = null;\n");
-    builder.append("        return this;\n    }\n\n");
+  private void generateWithoutMethod(final SourceEmitter out, final String fixtureClassName,
+                                     final FieldSpec field, final String access, final String cap,
+                                     final String customizedMark) {
+    out.append("    public ").append(fixtureClassName).append(" without").append(cap).append("() {\n");
+    out.append("        ").append(access).append(" = null;\n");
+    generateOverrideMark(out, field);
+    out.append(customizedMark);
+    out.append("        return this;\n    }\n\n");
   }
 
   /**
    * Generates the "getX" method to retrieve the field's value.
+   * A lazy default is computed on first access, then kept as if the field was overridden.
    *
-   * @param builder The StringBuilder to write into.
-   * @param type    The field type.
-   * @param name    The field name.
-   * @param cap     The capitalized field name.
+   * @param out    The emitter to write into.
+   * @param spec   The spec of the generated fixture.
+   * @param field  The snapshot of the field.
+   * @param access The expression accessing the field.
+   * @param cap    The capitalized field name.
    */
-  private void generateGetMethod(final StringBuilder builder, final String type,
-                                 final String name, final String cap) {
-    builder.append("    public ").append(type).append(" get").append(cap).append("() {\n");
-    builder.append("        return model.").append(name).append(";\n");
-    builder.append("    }\n\n");
+  private void generateGetMethod(final SourceEmitter out, final FixtureSpec spec,
+                                 final FieldSpec field, final String access, final String cap) {
+    out.append("    public ").append(field.type()).append(" get").append(cap).append("() {\n");
+    if (field.lazyDefault()) {
+      generateLazyDefault(out, field, spec);
+      generateOverrideMark(out, field);
+    }
+    out.append("        return ").append(access).append(";\n");
+    out.append("    }\n\n");
   }
 }
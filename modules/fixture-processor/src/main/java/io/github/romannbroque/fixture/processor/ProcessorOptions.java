@@ -0,0 +1,93 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.nio.file.Path;
+import java.util.Map;
+import javax.lang.model.SourceVersion;
+
+/**
+ * Record holding the processor options passed to the compiler with {@code -A<name>=<value>}.
+ *
+ * @param parallelism    The number of threads used to render fixture sources ({@code -Afixture.parallelism}).
+ * @param statsReport    The path of the JSON build report ({@code -Afixture.stats}), or {@code null} if disabled.
+ * @param jfrEvents      Whether the generated fixtures emit JFR events ({@code -Afixture.jfr}).
+ * @param registry       The qualified name of the generated fixture index ({@code -Afixture.registry}), or
+ *                       {@code null} if disabled.
+ * @param getters        Whether the fixtures may have getters ({@code -Afixture.getters}).
+ * @param withoutMethods Whether the fixtures may have {@code without} methods ({@code -Afixture.withoutMethods}).
+ * @param compact        Whether every fixture is emitted in compact mode ({@code -Afixture.compact}).
+ */
+record ProcessorOptions(int parallelism, Path statsReport, boolean jfrEvents, String registry, boolean getters,
+                        boolean withoutMethods, boolean compact) {
+
+  static final String PARALLELISM = "fixture.parallelism";
+  static final String STATS = "fixture.stats";
+  static final String JFR = "fixture.jfr";
+  static final String REGISTRY = "fixture.registry";
+  static final String GETTERS = "fixture.getters";
+  static final String WITHOUT_METHODS = "fixture.withoutMethods";
+  static final String COMPACT = "fixture.compact";
+
+  /**
+   * Parses the processor options.
+   *
+   * @param options The options provided by the processing environment.
+   * @return The parsed options, with defaults for the missing ones.
+   * @throws IllegalStateException if an option value is malformed.
+   */
+  static ProcessorOptions parse(final Map<String, String> options) {
+    return new ProcessorOptions(parsePositiveInt(options, PARALLELISM, 1), parsePath(options, STATS),
+        parseBoolean(options, JFR, false), parseClassName(options, REGISTRY), parseBoolean(options, GETTERS, true),
+        parseBoolean(options, WITHOUT_METHODS, true), parseBoolean(options, COMPACT, false));
+  }
+
+  private static String parseClassName(final Map<String, String> options, final String key) {
+    final String value = options.get(key);
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    if (!SourceVersion.isName(value.trim())) {
+      throw new IllegalStateException("Invalid value '" + value + "' for -A" + key
+          + ": a qualified class name is expected.");
+    }
+    return value.trim();
+  }
+
+  private static boolean parseBoolean(final Map<String, String> options, final String key,
+                                      final boolean defaultValue) {
+    final String value = options.get(key);
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    if (value.trim().equalsIgnoreCase("true")) {
+      return true;
+    }
+    if (value.trim().equalsIgnoreCase("false")) {
+      return false;
+    }
+    throw new IllegalStateException("Invalid value '" + value + "' for -A" + key + ": true or false is expected.");
+  }
+
+  private static Path parsePath(final Map<String, String> options, final String key) {
+    final String value = options.get(key);
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return Path.of(value.trim());
+  }
+
+  private static int parsePositiveInt(final Map<String, String> options, final String key, final int defaultValue) {
+    final String value = options.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      final int parsed = Integer.parseInt(value.trim());
+      if (parsed > 0) {
+        return parsed;
+      }
+    } catch (final NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalStateException("Invalid value '" + value + "' for -A" + key + ": a positive integer is expected.");
+  }
+}
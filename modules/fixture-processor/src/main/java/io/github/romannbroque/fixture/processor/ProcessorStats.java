@@ -0,0 +1,225 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.Diagnostic;
+
+/**
+ * Build report of the processor, enabled with {@code -Afixture.stats=<path>}.
+ *
+ * <p>
+ * It keeps the statistics of every round and every fixture, then writes them as JSON at the end of processing
+ * and prints a short summary through the {@link Messager}. Times are reported in nanoseconds and sizes in bytes
+ * of UTF-8 encoded source.
+ *
+ * <p>
+ * When javac runs the processor directly, the report is deferred to the end of the compilation, so that it also holds
+ * the number of class files, bytecode bytes and bytecode methods of each fixture, measured by the
+ * {@link ClassFileTracker}.
+ */
+final class ProcessorStats {
+
+  private final Path reportPath;
+  private final List<RoundStats> rounds = new ArrayList<>();
+  private final Map<String, FixtureStats> fixturesByName = new HashMap<>();
+  private boolean classFilesTracked;
+
+  /**
+   * Constructs the report.
+   *
+   * @param reportPath The path of the JSON report, or {@code null} if the report is disabled.
+   */
+  ProcessorStats(final Path reportPath) {
+    this.reportPath = reportPath;
+  }
+
+  boolean enabled() {
+    return reportPath != null;
+  }
+
+  /**
+   * Tracks the class files of the fixtures, if the compiler supports it, deferring the report to the end of the
+   * compilation.
+   *
+   * @param processingEnv The processing environment.
+   */
+  void trackClassFiles(final ProcessingEnvironment processingEnv) {
+    if (enabled()) {
+      classFilesTracked = ClassFileTracker.register(processingEnv, this, () -> report(processingEnv.getMessager()));
+    }
+  }
+
+  /**
+   * Records the statistics of a processing round.
+   *
+   * @param durationNanos The time spent by the processor in the round.
+   * @param fixtures      The statistics of the fixtures generated in the round.
+   */
+  void recordRound(final long durationNanos, final List<FixtureStats> fixtures) {
+    if (enabled()) {
+      rounds.add(new RoundStats(rounds.size() + 1, durationNanos, List.copyOf(fixtures)));
+      for (final FixtureStats fixture : fixtures) {
+        fixturesByName.put(fixture.fixtureName(), fixture);
+      }
+    }
+  }
+
+  /**
+   * Records a class file written by the compiler, if it belongs to a generated fixture.
+   *
+   * @param topLevelName The qualified name of the top-level class of the class file.
+   * @param measure      Measures the class file into the statistics of its fixture.
+   */
+  void recordClassFile(final String topLevelName, final Consumer<FixtureStats> measure) {
+    final FixtureStats fixture = fixturesByName.get(topLevelName);
+    if (fixture != null) {
+      measure.accept(fixture);
+    }
+  }
+
+  /**
+   * Writes the report at the end of annotation processing, unless it is deferred to the end of the compilation.
+   *
+   * @param messager The messager used to print the summary.
+   */
+  void processingOver(final Messager messager) {
+    if (!classFilesTracked) {
+      report(messager);
+    }
+  }
+
+  /**
+   * Writes the JSON report and prints its summary. Failing to write the report only emits a warning.
+   *
+   * @param messager The messager used to print the summary.
+   */
+  private void report(final Messager messager) {
+    if (!enabled()) {
+      return;
+    }
+    try {
+      if (reportPath.getParent() != null) {
+        Files.createDirectories(reportPath.getParent());
+      }
+      try (Writer writer = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+        writeJson(writer);
+      }
+    } catch (final IOException e) {
+      messager.printMessage(Diagnostic.Kind.WARNING,
+          "fixture-processor: failed to write stats report to " + reportPath + ": " + e.getMessage());
+      return;
+    }
+    messager.printMessage(Diagnostic.Kind.NOTE, summary());
+  }
+
+  private String summary() {
+    long processorNanos = 0;
+    long renderingNanos = 0;
+    long writeNanos = 0;
+    long bytes = 0;
+    long bytecodeBytes = 0;
+    int fixtureCount = 0;
+    FixtureStats slowest = null;
+    for (final RoundStats round : rounds) {
+      processorNanos += round.durationNanos();
+      for (final FixtureStats fixture : round.fixtures()) {
+        fixtureCount++;
+        renderingNanos += fixture.renderingNanos();
+        writeNanos += fixture.writeNanos();
+        bytes += fixture.bytes();
+        bytecodeBytes += fixture.bytecodeBytes();
+        if (slowest == null || totalNanos(fixture) > totalNanos(slowest)) {
+          slowest = fixture;
+        }
+      }
+    }
+    final StringBuilder summary = new StringBuilder()
+        .append("fixture-processor: ").append(fixtureCount).append(" fixtures in ").append(rounds.size())
+        .append(" rounds, ").append(millis(processorNanos)).append(" ms (rendering ").append(millis(renderingNanos))
+        .append(" ms, writing ").append(millis(writeNanos)).append(" ms), ").append(bytes).append(" bytes");
+    if (classFilesTracked) {
+      summary.append(", ").append(bytecodeBytes).append(" bytes of bytecode");
+    }
+    if (slowest != null) {
+      summary.append(", slowest: ").append(slowest.dataSetName())
+          .append(" (").append(millis(totalNanos(slowest))).append(" ms)");
+    }
+    return summary.append(". Report: ").append(reportPath).toString();
+  }
+
+  private void writeJson(final Writer writer) throws IOException {
+    writer.write("{\n  \"rounds\": [");
+    for (int r = 0; r < rounds.size(); r++) {
+      final RoundStats round = rounds.get(r);
+      writer.write(r == 0 ? "\n" : ",\n");
+      writer.write("    {\"round\": " + round.number() + ", \"durationNanos\": " + round.durationNanos()
+          + ", \"fixtures\": [");
+      for (int f = 0; f < round.fixtures().size(); f++) {
+        final FixtureStats fixture = round.fixtures().get(f);
+        writer.write(f == 0 ? "\n" : ",\n");
+        writer.write("      {\"dataSet\": " + quote(fixture.dataSetName())
+            + ", \"fixture\": " + quote(fixture.fixtureName())
+            + ", \"fields\": " + fixture.fieldCount()
+            + ", \"methods\": " + fixture.methodCount()
+            + ", \"bytes\": " + fixture.bytes()
+            + ", \"classFiles\": " + (classFilesTracked ? fixture.classFiles() : "null")
+            + ", \"bytecodeBytes\": " + (classFilesTracked ? fixture.bytecodeBytes() : "null")
+            + ", \"bytecodeMethods\": " + (classFilesTracked ? fixture.bytecodeMethods() : "null")
+            + ", \"annotationParsingNanos\": " + fixture.annotationParsingNanos()
+            + ", \"fieldDiscoveryNanos\": " + fixture.fieldDiscoveryNanos()
+            + ", \"fixtureRenderingNanos\": " + fixture.fixtureRenderingNanos()
+            + ", \"fieldRenderingNanos\": " + fixture.fieldRenderingNanos()
+            + ", \"writeNanos\": " + fixture.writeNanos() + "}");
+      }
+      writer.write(round.fixtures().isEmpty() ? "]}" : "\n    ]}");
+    }
+    writer.write(rounds.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+  }
+
+  private static long totalNanos(final FixtureStats fixture) {
+    return fixture.annotationParsingNanos() + fixture.fieldDiscoveryNanos() + fixture.renderingNanos()
+        + fixture.writeNanos();
+  }
+
+  private static long millis(final long nanos) {
+    return nanos / 1_000_000;
+  }
+
+  private static String quote(final String value) {
+    if (value == null) {
+      return "null";
+    }
+    final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  /**
+   * Statistics of a processing round.
+   *
+   * @param number        The round number, starting at 1.
+   * @param durationNanos The time spent by the processor in the round.
+   * @param fixtures      The statistics of the fixtures generated in the round.
+   */
+  private record RoundStats(int number, long durationNanos, List<FixtureStats> fixtures) {
+  }
+}
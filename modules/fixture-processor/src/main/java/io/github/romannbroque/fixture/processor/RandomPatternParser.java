@@ -0,0 +1,137 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses the patterns of {@code @RandomPattern} into tokens, so that the generated fixture draws matching strings
+ * with plain character code instead of a regular expression engine.
+ */
+final class RandomPatternParser {
+
+  private static final String DIGITS = "0123456789";
+  private static final String WORD_CHARACTERS =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789_";
+
+  private final String pattern;
+  private int position;
+
+  private RandomPatternParser(final String pattern) {
+    this.pattern = pattern;
+  }
+
+  /**
+   * Parses a pattern.
+   *
+   * @param pattern The pattern to parse.
+   * @return The random spec drawing strings matching the pattern.
+   * @throws IllegalArgumentException if the pattern is malformed.
+   */
+  static RandomSpec.Pattern parse(final String pattern) {
+    return new RandomPatternParser(pattern).parsePattern();
+  }
+
+  private RandomSpec.Pattern parsePattern() {
+    final List<RandomSpec.PatternToken> tokens = new ArrayList<>();
+    while (position < pattern.length()) {
+      final String alphabet = parseAlphabet();
+      final int[] counts = parseQuantifier();
+      tokens.add(new RandomSpec.PatternToken(alphabet, counts[0], counts[1]));
+    }
+    return new RandomSpec.Pattern(List.copyOf(tokens));
+  }
+
+  private String parseAlphabet() {
+    final char current = pattern.charAt(position++);
+    return switch (current) {
+      case '[' -> parseClass();
+      case '\\' -> parseEscape();
+      case ']', '{', '}', '?' ->
+          throw new IllegalArgumentException("unexpected '" + current + "' at index " + (position - 1));
+      default -> String.valueOf(current);
+    };
+  }
+
+  private String parseEscape() {
+    if (position >= pattern.length()) {
+      throw new IllegalArgumentException("dangling '\\' at the end");
+    }
+    final char escaped = pattern.charAt(position++);
+    if (escaped == 'd') {
+      return DIGITS;
+    }
+    if (escaped == 'w') {
+      return WORD_CHARACTERS;
+    }
+    return String.valueOf(escaped);
+  }
+
+  private String parseClass() {
+    final Set<Character> characters = new LinkedHashSet<>();
+    while (position < pattern.length() && pattern.charAt(position) != ']') {
+      final char first = pattern.charAt(position++);
+      if (first == '\\') {
+        for (final char escaped : parseEscape().toCharArray()) {
+          characters.add(escaped);
+        }
+      } else if (position + 1 < pattern.length() && pattern.charAt(position) == '-'
+          && pattern.charAt(position + 1) != ']') {
+        final char last = pattern.charAt(position + 1);
+        if (last < first) {
+          throw new IllegalArgumentException("invalid range '" + first + "-" + last + "'");
+        }
+        for (char character = first; character <= last; character++) {
+          characters.add(character);
+        }
+        position += 2;
+      } else {
+        characters.add(first);
+      }
+    }
+    if (position >= pattern.length()) {
+      throw new IllegalArgumentException("unclosed character class");
+    }
+    position++;
+    if (characters.isEmpty()) {
+      throw new IllegalArgumentException("empty character class");
+    }
+    final StringBuilder alphabet = new StringBuilder(characters.size());
+    for (final char character : characters) {
+      alphabet.append(character);
+    }
+    return alphabet.toString();
+  }
+
+  private int[] parseQuantifier() {
+    if (position >= pattern.length()) {
+      return new int[] {1, 1};
+    }
+    final char current = pattern.charAt(position);
+    if (current == '?') {
+      position++;
+      return new int[] {0, 1};
+    }
+    if (current != '{') {
+      return new int[] {1, 1};
+    }
+    final int end = pattern.indexOf('}', position);
+    if (end < 0) {
+      throw new IllegalArgumentException("unclosed quantifier at index " + position);
+    }
+    final String quantifier = pattern.substring(position + 1, end);
+    position = end + 1;
+    final int comma = quantifier.indexOf(',');
+    try {
+      final int min = Integer.parseInt((comma < 0 ? quantifier : quantifier.substring(0, comma)).trim());
+      final int max = comma < 0 ? min : Integer.parseInt(quantifier.substring(comma + 1).trim());
+      if (min < 0 || max < min) {
+        throw new IllegalArgumentException("invalid quantifier {" + quantifier + "}");
+      }
+      return new int[] {min, max};
+    } catch (final NumberFormatException e) {
+      throw new IllegalArgumentException("invalid quantifier {" + quantifier + "}", e);
+    }
+  }
+}
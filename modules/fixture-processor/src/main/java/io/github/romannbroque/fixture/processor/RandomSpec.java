@@ -0,0 +1,67 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the strategy used to draw the random value of a data model field, read from its
+ * {@code @Random*} annotation and already validated against the field type.
+ */
+sealed interface RandomSpec {
+
+  /**
+   * A number drawn between two bounds.
+   *
+   * @param min The inclusive lower bound.
+   * @param max The exclusive upper bound.
+   */
+  record Range(long min, long max) implements RandomSpec {
+  }
+
+  /**
+   * A string drawn from a sequence of character tokens.
+   *
+   * @param tokens The tokens of the pattern, in order.
+   */
+  record Pattern(List<PatternToken> tokens) implements RandomSpec {
+
+    /**
+     * Returns the length of the longest string matching the pattern.
+     *
+     * @return The maximum length of a drawn string.
+     */
+    int maxLength() {
+      int maxLength = 0;
+      for (final PatternToken token : tokens) {
+        maxLength += token.maxCount();
+      }
+      return maxLength;
+    }
+  }
+
+  /**
+   * An enum constant drawn among a set of constants.
+   *
+   * @param constants The names of the constants that can be drawn.
+   */
+  record Choice(List<String> constants) implements RandomSpec {
+  }
+
+  /**
+   * A date drawn in a time window, in epoch days for a {@code LocalDate} and in epoch seconds otherwise.
+   *
+   * @param from The inclusive lower bound.
+   * @param to   The exclusive upper bound.
+   */
+  record Window(long from, long to) implements RandomSpec {
+  }
+
+  /**
+   * A character drawn from an alphabet and repeated a random number of times.
+   *
+   * @param alphabet The characters that can be drawn; a single character for a literal.
+   * @param minCount The minimum number of characters.
+   * @param maxCount The maximum number of characters.
+   */
+  record PatternToken(String alphabet, int minCount, int maxCount) {
+  }
+}
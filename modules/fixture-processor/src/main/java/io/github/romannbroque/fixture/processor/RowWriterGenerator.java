@@ -0,0 +1,366 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.List;
+
+/**
+ * Code generator responsible for producing the {@code RowWriter} of a fixture, which exports the fields of fixtures
+ * as JSON Lines or CSV rows over a {@link java.nio.channels.WritableByteChannel}.
+ *
+ * <p>
+ * The writer is specialized for the assignable fields of the data model, as the snapshot codec: static and final
+ * fields, such as constants or loggers, are not exported. Each field is read directly and encoded by a method
+ * chosen from its type, without reflection. Integers, booleans and strings are encoded byte by byte into a reused
+ * {@link java.nio.ByteBuffer}, which is flushed to the channel when full, so memory use stays constant whatever the
+ * number of rows.
+ */
+class RowWriterGenerator {
+
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Generates the {@code RowWriter} nested class of the fixture.
+   *
+   * @param out  The emitter used to write the generated code.
+   * @param spec The spec of the generated fixture.
+   */
+  void generateRowWriter(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    final List<FieldSpec> fields = spec.fields().stream().filter(FieldSpec::mutable).toList();
+    out.javadoc("    ",
+            "Writes the fields of fixtures as JSON Lines or CSV rows into a channel, through a reused",
+            "buffer. Closing the writer flushes the buffer, but does not close the channel.")
+        .append("    public static final class RowWriter implements AutoCloseable {\n\n");
+    generateConstants(out, fields);
+    out.append("        private final java.nio.channels.WritableByteChannel channel;\n")
+        .append("        private final java.nio.ByteBuffer buffer;\n")
+        .append("        private final boolean json;\n")
+        .append("        private final byte[] digits = new byte[20];\n")
+        .append("        private boolean headerPending;\n")
+        .append("        private long rowCount;\n\n")
+        .append("        private RowWriter(final java.nio.channels.WritableByteChannel channel, final boolean json,\n")
+        .append("                final int bufferSize) {\n")
+        .append("            if (bufferSize < 64) {\n")
+        .append("                throw new IllegalArgumentException(\"The buffer size must be at least 64 bytes: \"\n")
+        .append("                    + bufferSize);\n")
+        .append("            }\n")
+        .append("            this.channel = channel;\n")
+        .append("            this.buffer = java.nio.ByteBuffer.allocateDirect(bufferSize);\n")
+        .append("            this.json = json;\n")
+        .append("        }\n\n");
+    generateFactories(out);
+    generateWrite(out, spec, fields);
+    generateWriteAll(out, fixtureClassName);
+    out.javadoc("        ",
+            "Returns the number of rows written so far, the CSV header excluded.",
+            "@return The number of rows.")
+        .append("        public long rowCount() {\n")
+        .append("            return rowCount;\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Writes the buffered bytes to the channel.",
+            "@throws java.io.IOException If the channel cannot be written.")
+        .append("        public void flush() throws java.io.IOException {\n")
+        .append("            buffer.flip();\n")
+        .append("            while (buffer.hasRemaining()) {\n")
+        .append("                channel.write(buffer);\n")
+        .append("            }\n")
+        .append("            buffer.clear();\n")
+        .append("        }\n\n")
+        .append("        @Override\n")
+        .append("        public void close() throws java.io.IOException {\n")
+        .append("            putHeader();\n")
+        .append("            flush();\n")
+        .append("        }\n\n");
+    generateEncoders(out);
+    out.append("    }\n\n");
+  }
+
+  private void generateConstants(final SourceEmitter out, final List<FieldSpec> fields) {
+    out.append("        private static final byte[][] JSON_KEYS = {\n");
+    final StringBuilder header = new StringBuilder();
+    for (int index = 0; index < fields.size(); index++) {
+      final String name = fields.get(index).name();
+      out.append("            utf8(\"").append(index == 0 ? "{" : ",").append("\\\"").append(name)
+          .append("\\\":\"),\n");
+      header.append(index == 0 ? "" : ",").append(name);
+    }
+    out.append("        };\n")
+        .append("        private static final byte[] CSV_HEADER = utf8(\"").append(header.toString())
+        .append("\\n\");\n")
+        .append("        private static final byte[] NULL = utf8(\"null\");\n")
+        .append("        private static final byte[] TRUE = utf8(\"true\");\n")
+        .append("        private static final byte[] FALSE = utf8(\"false\");\n")
+        .append("        private static final byte[] MIN_LONG = utf8(String.valueOf(Long.MIN_VALUE));\n\n");
+  }
+
+  private void generateFactories(final SourceEmitter out) {
+    out.javadoc("        ",
+            "Creates a writer of JSON Lines: one JSON object per fixture, keyed by field name.",
+            "@param channel The channel to write to, for instance a {@code FileChannel}.",
+            "@return A new writer with a buffer of " + DEFAULT_BUFFER_SIZE + " bytes.")
+        .append("        public static RowWriter jsonLines(final java.nio.channels.WritableByteChannel channel) {\n")
+        .append("            return jsonLines(channel, ").append(String.valueOf(DEFAULT_BUFFER_SIZE)).append(");\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Creates a writer of JSON Lines: one JSON object per fixture, keyed by field name.",
+            "@param channel The channel to write to, for instance a {@code FileChannel}.",
+            "@param bufferSize The size in bytes of the buffer flushed to the channel when full.",
+            "@return A new writer.")
+        .append("        public static RowWriter jsonLines(final java.nio.channels.WritableByteChannel channel,\n")
+        .append("                final int bufferSize) {\n")
+        .append("            return new RowWriter(channel, true, bufferSize);\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Creates a writer of CSV rows, starting with a header row of the field names.",
+            "@param channel The channel to write to, for instance a {@code FileChannel}.",
+            "@return A new writer with a buffer of " + DEFAULT_BUFFER_SIZE + " bytes.")
+        .append("        public static RowWriter csv(final java.nio.channels.WritableByteChannel channel) {\n")
+        .append("            return csv(channel, ").append(String.valueOf(DEFAULT_BUFFER_SIZE)).append(");\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Creates a writer of CSV rows, starting with a header row of the field names.",
+            "@param channel The channel to write to, for instance a {@code FileChannel}.",
+            "@param bufferSize The size in bytes of the buffer flushed to the channel when full.",
+            "@return A new writer.")
+        .append("        public static RowWriter csv(final java.nio.channels.WritableByteChannel channel,\n")
+        .append("                final int bufferSize) {\n")
+        .append("            final RowWriter writer = new RowWriter(channel, false, bufferSize);\n")
+        .append("            writer.headerPending = true;\n")
+        .append("            return writer;\n")
+        .append("        }\n\n");
+  }
+
+  /**
+   * Generates the method writing one row, encoding each field with the method matching its type.
+   *
+   * @param out    The emitter to write into.
+   * @param spec   The spec of the generated fixture.
+   * @param fields The exported fields, in column order.
+   */
+  private void generateWrite(final SourceEmitter out, final FixtureSpec spec, final List<FieldSpec> fields) {
+    out.javadoc("        ",
+            "Writes the current values of a fixture as one row. Lazy defaults are computed first.",
+            "@param fixture The fixture to write.",
+            "@return This writer.",
+            "@throws java.io.IOException If the channel cannot be written.")
+        .append("        public RowWriter write(final ").append(spec.fixtureClassName())
+        .append(" fixture) throws java.io.IOException {\n")
+        .append("            putHeader();\n");
+    if (spec.overrideWordCount() > 0) {
+      out.append("            fixture.applyLazyDefaults();\n");
+    }
+    for (int index = 0; index < fields.size(); index++) {
+      final FieldSpec field = fields.get(index);
+      out.append("            separate(").append(String.valueOf(index)).append(");\n")
+          .append("            ").append(encoder(field.type())).append("(fixture.")
+          .append(spec.recordModel() ? "" : "model.").append(field.name()).append(");\n");
+    }
+    out.append("            ensure(2);\n")
+        .append("            if (json) {\n")
+        .append("                buffer.put((byte) '}');\n")
+        .append("            }\n")
+        .append("            buffer.put((byte) '\\n');\n")
+        .append("            rowCount++;\n")
+        .append("            return this;\n")
+        .append("        }\n\n");
+  }
+
+  private void generateWriteAll(final SourceEmitter out, final String fixtureClassName) {
+    out.javadoc("        ",
+            "Writes rows in bulk, reusing a single fixture reset to its default values before each",
+            "row.",
+            "@param count The number of rows to write.",
+            "@param customizer Customizes the fixture of each row, given its index.",
+            "@return This writer.",
+            "@throws java.io.IOException If the channel cannot be written.")
+        .append("        public RowWriter writeAll(final long count,\n")
+        .append("                final java.util.function.ObjLongConsumer<").append(fixtureClassName)
+        .append("> customizer) throws java.io.IOException {\n")
+        .append("            final ").append(fixtureClassName).append(" fixture = new ").append(fixtureClassName)
+        .append("();\n")
+        .append("            for (long index = 0; index < count; index++) {\n")
+        .append("                fixture.reset();\n")
+        .append("                customizer.accept(fixture, index);\n")
+        .append("                write(fixture);\n")
+        .append("            }\n")
+        .append("            return this;\n")
+        .append("        }\n\n");
+  }
+
+  /**
+   * Returns the name of the generated method encoding a value of the given type. Integral and boolean values are
+   * encoded without boxing, strings character by character, and other objects through their {@code toString()}.
+   *
+   * @param type The type of the field.
+   * @return The name of the encoding method.
+   */
+  private String encoder(final String type) {
+    return switch (type) {
+      case "int", "long", "short", "byte" -> "putLong";
+      case "boolean", "java.lang.Boolean" -> "putBoolean";
+      case "double" -> "putDouble";
+      case "float" -> "putFloat";
+      case "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte", "java.lang.Double",
+           "java.lang.Float" -> "putNumber";
+      case "java.lang.String" -> "putText";
+      default -> "putObject";
+    };
+  }
+
+  private void generateEncoders(final SourceEmitter out) {
+    out.append("        private static byte[] utf8(final String value) {\n")
+        .append("            return value.getBytes(java.nio.charset.StandardCharsets.UTF_8);\n")
+        .append("        }\n\n")
+        .append("        private void putHeader() throws java.io.IOException {\n")
+        .append("            if (headerPending) {\n")
+        .append("                headerPending = false;\n")
+        .append("                putBytes(CSV_HEADER);\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void ensure(final int length) throws java.io.IOException {\n")
+        .append("            if (buffer.remaining() < length) {\n")
+        .append("                flush();\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putBytes(final byte[] bytes) throws java.io.IOException {\n")
+        .append("            int offset = 0;\n")
+        .append("            while (bytes.length - offset > buffer.remaining()) {\n")
+        .append("                final int chunk = buffer.remaining();\n")
+        .append("                buffer.put(bytes, offset, chunk);\n")
+        .append("                offset += chunk;\n")
+        .append("                flush();\n")
+        .append("            }\n")
+        .append("            buffer.put(bytes, offset, bytes.length - offset);\n")
+        .append("        }\n\n")
+        .append("        private void separate(final int fieldIndex) throws java.io.IOException {\n")
+        .append("            if (json) {\n")
+        .append("                putBytes(JSON_KEYS[fieldIndex]);\n")
+        .append("            } else if (fieldIndex > 0) {\n")
+        .append("                ensure(1);\n")
+        .append("                buffer.put((byte) ',');\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putNull() throws java.io.IOException {\n")
+        .append("            if (json) {\n")
+        .append("                putBytes(NULL);\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putBoolean(final boolean value) throws java.io.IOException {\n")
+        .append("            putBytes(value ? TRUE : FALSE);\n")
+        .append("        }\n\n")
+        .append("        private void putBoolean(final Boolean value) throws java.io.IOException {\n")
+        .append("            if (value == null) {\n")
+        .append("                putNull();\n")
+        .append("            } else {\n")
+        .append("                putBoolean(value.booleanValue());\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putLong(final long value) throws java.io.IOException {\n")
+        .append("            if (value == Long.MIN_VALUE) {\n")
+        .append("                putBytes(MIN_LONG);\n")
+        .append("                return;\n")
+        .append("            }\n")
+        .append("            long remaining = Math.abs(value);\n")
+        .append("            int start = digits.length;\n")
+        .append("            do {\n")
+        .append("                digits[--start] = (byte) ('0' + remaining % 10);\n")
+        .append("                remaining /= 10;\n")
+        .append("            } while (remaining != 0);\n")
+        .append("            if (value < 0) {\n")
+        .append("                digits[--start] = '-';\n")
+        .append("            }\n")
+        .append("            ensure(digits.length - start);\n")
+        .append("            buffer.put(digits, start, digits.length - start);\n")
+        .append("        }\n\n")
+        .append("        private void putDouble(final double value) throws java.io.IOException {\n")
+        .append("            if (json && !Double.isFinite(value)) {\n")
+        .append("                putNull();\n")
+        .append("            } else {\n")
+        .append("                putBytes(utf8(Double.toString(value)));\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putFloat(final float value) throws java.io.IOException {\n")
+        .append("            if (json && !Float.isFinite(value)) {\n")
+        .append("                putNull();\n")
+        .append("            } else {\n")
+        .append("                putBytes(utf8(Float.toString(value)));\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putNumber(final Number value) throws java.io.IOException {\n")
+        .append("            if (value == null) {\n")
+        .append("                putNull();\n")
+        .append("            } else if (value instanceof final Double doubleValue) {\n")
+        .append("                putDouble(doubleValue);\n")
+        .append("            } else if (value instanceof final Float floatValue) {\n")
+        .append("                putFloat(floatValue);\n")
+        .append("            } else {\n")
+        .append("                putLong(value.longValue());\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private void putObject(final Object value) throws java.io.IOException {\n")
+        .append("            putText(value == null ? null : value.toString());\n")
+        .append("        }\n\n");
+    generatePutText(out);
+  }
+
+  /**
+   * Generates the method encoding a text as UTF-8, quoted and escaped for JSON, or quoted for CSV when it contains a
+   * separator, a quote or a line break.
+   *
+   * @param out The emitter to write into.
+   */
+  private void generatePutText(final SourceEmitter out) {
+    out.append("        private void putText(final CharSequence value) throws java.io.IOException {\n")
+        .append("            if (value == null) {\n")
+        .append("                putNull();\n")
+        .append("                return;\n")
+        .append("            }\n")
+        .append("            final int length = value.length();\n")
+        .append("            boolean quoted = json;\n")
+        .append("            for (int index = 0; !quoted && index < length; index++) {\n")
+        .append("                final char character = value.charAt(index);\n")
+        .append("                quoted = character == ',' || character == '\"' || character == '\\n'")
+        .append(" || character == '\\r';\n")
+        .append("            }\n")
+        .append("            ensure(1);\n")
+        .append("            if (quoted) {\n")
+        .append("                buffer.put((byte) '\"');\n")
+        .append("            }\n")
+        .append("            for (int index = 0; index < length; index++) {\n")
+        .append("                final char character = value.charAt(index);\n")
+        .append("                ensure(7);\n")
+        .append("                if (character == '\"') {\n")
+        .append("                    buffer.put((byte) (json ? '\\\\' : '\"')).put((byte) '\"');\n")
+        .append("                } else if (json && character == '\\\\') {\n")
+        .append("                    buffer.put((byte) '\\\\').put((byte) '\\\\');\n")
+        .append("                } else if (json && character < 0x20) {\n")
+        .append("                    buffer.put((byte) '\\\\').put((byte) 'u').put((byte) '0').put((byte) '0')\n")
+        .append("                        .put((byte) Character.forDigit(character >> 4, 16))\n")
+        .append("                        .put((byte) Character.forDigit(character & 0xF, 16));\n")
+        .append("                } else if (character < 0x80) {\n")
+        .append("                    buffer.put((byte) character);\n")
+        .append("                } else if (character < 0x800) {\n")
+        .append("                    buffer.put((byte) (0xC0 | character >> 6))\n")
+        .append("                        .put((byte) (0x80 | character & 0x3F));\n")
+        .append("                } else if (Character.isHighSurrogate(character) && index + 1 < length\n")
+        .append("                    && Character.isLowSurrogate(value.charAt(index + 1))) {\n")
+        .append("                    final int codePoint = Character.toCodePoint(character, value.charAt(++index));\n")
+        .append("                    buffer.put((byte) (0xF0 | codePoint >> 18))\n")
+        .append("                        .put((byte) (0x80 | codePoint >> 12 & 0x3F))\n")
+        .append("                        .put((byte) (0x80 | codePoint >> 6 & 0x3F))\n")
+        .append("                        .put((byte) (0x80 | codePoint & 0x3F));\n")
+        .append("                } else if (Character.isSurrogate(character)) {\n")
+        .append("                    buffer.put((byte) '?');\n")
+        .append("                } else {\n")
+        .append("                    buffer.put((byte) (0xE0 | character >> 12))\n")
+        .append("                        .put((byte) (0x80 | character >> 6 & 0x3F))\n")
+        .append("                        .put((byte) (0x80 | character & 0x3F));\n")
+        .append("                }\n")
+        .append("            }\n")
+        .append("            ensure(1);\n")
+        .append("            if (quoted) {\n")
+        .append("                buffer.put((byte) '\"');\n")
+        .append("            }\n")
+        .append("        }\n");
+  }
+}
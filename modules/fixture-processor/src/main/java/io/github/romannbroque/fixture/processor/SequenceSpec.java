@@ -0,0 +1,12 @@
+package io.github.romannbroque.fixture.processor;
+
+/**
+ * Immutable snapshot of the {@code @Sequence} annotation of a data model field.
+ *
+ * @param prefix    The text preceding the sequence number in a {@code String} value, empty for a numeric field.
+ * @param suffix    The text following the sequence number in a {@code String} value, empty for a numeric field.
+ * @param start     The first number of the sequence.
+ * @param blockSize The number of values reserved at once by a thread.
+ */
+record SequenceSpec(String prefix, String suffix, long start, int blockSize) {
+}
@@ -0,0 +1,424 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Code generator responsible for producing the {@code FixtureSnapshot} of a fixture, which stores the data model
+ * values of many fixtures in a binary file, then reads them back lazily through a memory-mapped buffer.
+ *
+ * <p>
+ * The layout is derived from the assignable fields of the data model, in declaration order:
+ * <ul>
+ *     <li>A 16 bytes header: a magic number, a fingerprint of the field names and types, and the number of
+ *         models.</li>
+ *     <li>A table of the {@code int} offsets of the models, so any model is decoded without reading the others.</li>
+ *     <li>The models, each field encoded with a fixed width for primitives, preceded by a presence byte for nullable
+ *         values, and as a length-prefixed UTF-8 string for strings, enums and big numbers.</li>
+ * </ul>
+ * A file written for other fields has another fingerprint and is rejected when opened.
+ */
+class SnapshotCodecGenerator {
+
+  private static final int MAGIC = 0x46585331;
+
+  private final ModelFieldGenerator fieldGenerator;
+
+  SnapshotCodecGenerator(final ModelFieldGenerator fieldGenerator) {
+    this.fieldGenerator = fieldGenerator;
+  }
+
+  /**
+   * Checks whether the value of a field can be stored in a snapshot.
+   *
+   * @param field The snapshot of the field.
+   * @return {@code true} if the field type has a binary encoding.
+   */
+  static boolean supports(final FieldSpec field) {
+    return field.enumType() || switch (field.type()) {
+      case "boolean", "byte", "short", "char", "int", "long", "float", "double",
+           "java.lang.Boolean", "java.lang.Byte", "java.lang.Short", "java.lang.Character", "java.lang.Integer",
+           "java.lang.Long", "java.lang.Float", "java.lang.Double", "java.lang.String", "java.math.BigDecimal",
+           "java.math.BigInteger", "java.time.LocalDate", "java.time.LocalTime", "java.time.LocalDateTime",
+           "java.time.Instant", "java.util.UUID" -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Generates the {@code FixtureSnapshot} nested class of the fixture.
+   *
+   * @param out  The emitter used to write the generated code.
+   * @param spec The spec of the generated fixture.
+   */
+  void generateSnapshot(final SourceEmitter out, final FixtureSpec spec) {
+    final List<FieldSpec> fields = spec.fields().stream().filter(FieldSpec::mutable).toList();
+    out.javadoc("    ",
+            "Stores the models of many fixtures in a binary file, written once, then mapped in memory",
+            "and decoded lazily: opening a snapshot only reads its header, and each model is decoded",
+            "when used. Processes mapping the same file share its pages through the page cache.")
+        .append("    public static final class FixtureSnapshot {\n\n")
+        .append("        private static final int MAGIC = 0x").append(Integer.toHexString(MAGIC)).append(";\n")
+        .append("        private static final long FINGERPRINT = 0x").append(Long.toHexString(fingerprint(fields)))
+        .append("L;\n")
+        .append("        private static final int HEADER_SIZE = 16;\n\n")
+        .append("        private final java.nio.ByteBuffer buffer;\n")
+        .append("        private final int size;\n\n")
+        .append("        private FixtureSnapshot(final java.nio.ByteBuffer buffer) {\n")
+        .append("            this.buffer = buffer;\n")
+        .append("            this.size = buffer.getInt(12);\n")
+        .append("        }\n\n");
+    generateWrite(out, spec, fields);
+    generateOpen(out, spec);
+    generateAccessors(out, spec, fields);
+    generateEncoder(out);
+    out.append("    }\n\n");
+  }
+
+  /**
+   * Generates the method writing a snapshot into a temporary file, then moving it atomically to its path, so that
+   * concurrent processes never map a partially written file.
+   *
+   * @param out    The emitter to write into.
+   * @param spec   The spec of the generated fixture.
+   * @param fields The fields stored in the snapshot.
+   */
+  private void generateWrite(final SourceEmitter out, final FixtureSpec spec, final List<FieldSpec> fields) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("        ",
+            "Writes the models of fixtures into a snapshot file, replacing it atomically if it",
+            "exists. A single fixture is reused, reset to its default values before each model.",
+            "@param path The snapshot file.",
+            "@param count The number of models to write.",
+            "@param customizer Customizes the fixture of each model, given its index.",
+            "@throws java.io.IOException If the file cannot be written.")
+        .append("        public static void write(final java.nio.file.Path path, final int count,\n")
+        .append("                final java.util.function.ObjIntConsumer<").append(fixtureClassName)
+        .append("> customizer) throws java.io.IOException {\n")
+        .append("            final java.nio.file.Path directory = path.toAbsolutePath().getParent();\n")
+        .append("            final java.nio.file.Path temporary = java.nio.file.Files.createTempFile(directory,\n")
+        .append("                String.valueOf(path.getFileName()), \".tmp\");\n")
+        .append("            try {\n")
+        .append("                try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel\n")
+        .append("                        .open(temporary, java.nio.file.StandardOpenOption.WRITE)) {\n")
+        .append("                    final java.nio.ByteBuffer table = java.nio.ByteBuffer\n")
+        .append("                        .allocate(HEADER_SIZE + 4 * count)\n")
+        .append("                        .putInt(MAGIC).putLong(FINGERPRINT).putInt(count);\n")
+        .append("                    final SnapshotEncoder encoder = new SnapshotEncoder(channel, table.capacity());\n")
+        .append("                    final ").append(fixtureClassName).append(" fixture = new ")
+        .append(fixtureClassName).append("();\n")
+        .append("                    for (int index = 0; index < count; index++) {\n")
+        .append("                        fixture.reset();\n")
+        .append("                        customizer.accept(fixture, index);\n");
+    if (spec.overrideWordCount() > 0) {
+      out.append("                        fixture.applyLazyDefaults();\n");
+    }
+    out.append("                        table.putInt(encoder.offset());\n");
+    for (final FieldSpec field : fields) {
+      out.append("                        ").append(encode(field, valueAccess(spec, field))).append("\n");
+    }
+    out.append("                    }\n")
+        .append("                    encoder.flush();\n")
+        .append("                    table.flip();\n")
+        .append("                    while (table.hasRemaining()) {\n")
+        .append("                        channel.write(table, table.position());\n")
+        .append("                    }\n")
+        .append("                }\n")
+        .append("                java.nio.file.Files.move(temporary, path,\n")
+        .append("                    java.nio.file.StandardCopyOption.REPLACE_EXISTING,\n")
+        .append("                    java.nio.file.StandardCopyOption.ATOMIC_MOVE);\n")
+        .append("            } finally {\n")
+        .append("                java.nio.file.Files.deleteIfExists(temporary);\n")
+        .append("            }\n")
+        .append("        }\n\n");
+  }
+
+  private void generateOpen(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("        ",
+            "Maps a snapshot file in memory. Only the header is read: models are decoded when used.",
+            "@param path The snapshot file.",
+            "@return The opened snapshot.",
+            "@throws java.io.IOException If the file cannot be read, or was not written for the",
+            "    current fields of the model.")
+        .append("        public static FixtureSnapshot open(final java.nio.file.Path path)\n")
+        .append("                throws java.io.IOException {\n")
+        .append("            try (java.nio.channels.FileChannel channel =\n")
+        .append("                    java.nio.channels.FileChannel.open(path)) {\n")
+        .append("                final long fileSize = channel.size();\n")
+        .append("                if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {\n")
+        .append("                    throw new java.io.IOException(\"Not a ").append(fixtureClassName)
+        .append(" snapshot: \" + path);\n")
+        .append("                }\n")
+        .append("                final java.nio.ByteBuffer buffer =\n")
+        .append("                    channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, fileSize);\n")
+        .append("                if (buffer.getInt(0) != MAGIC || buffer.getLong(4) != FINGERPRINT) {\n")
+        .append("                    throw new java.io.IOException(\"Snapshot not written for the current fields of ")
+        .append(fixtureClassName).append(": \" + path);\n")
+        .append("                }\n")
+        .append("                return new FixtureSnapshot(buffer);\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Maps a snapshot file in memory, writing it first if it is missing, written for other",
+            "fields, or holds another number of models. Changes of the customizer are not detected:",
+            "delete the file to write it again.",
+            "@param path The snapshot file.",
+            "@param count The number of models to write.",
+            "@param customizer Customizes the fixture of each model, given its index.",
+            "@return The opened snapshot.",
+            "@throws java.io.IOException If the file cannot be read or written.")
+        .append("        public static FixtureSnapshot openOrWrite(final java.nio.file.Path path, final int count,\n")
+        .append("                final java.util.function.ObjIntConsumer<").append(fixtureClassName)
+        .append("> customizer) throws java.io.IOException {\n")
+        .append("            if (java.nio.file.Files.isRegularFile(path)) {\n")
+        .append("                try {\n")
+        .append("                    final FixtureSnapshot snapshot = open(path);\n")
+        .append("                    if (snapshot.size() == count) {\n")
+        .append("                        return snapshot;\n")
+        .append("                    }\n")
+        .append("                } catch (final java.io.IOException stale) {\n")
+        .append("                    // written again below\n")
+        .append("                }\n")
+        .append("            }\n")
+        .append("            write(path, count, customizer);\n")
+        .append("            return open(path);\n")
+        .append("        }\n\n");
+  }
+
+  /**
+   * Generates the methods decoding a model of the snapshot. Each decoding reads a duplicate of the mapped buffer, so
+   * a snapshot can be read by several threads.
+   *
+   * @param out    The emitter to write into.
+   * @param spec   The spec of the generated fixture.
+   * @param fields The fields stored in the snapshot.
+   */
+  private void generateAccessors(final SourceEmitter out, final FixtureSpec spec, final List<FieldSpec> fields) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("        ",
+            "Returns the number of models in the snapshot.",
+            "@return The number of models.")
+        .append("        public int size() {\n")
+        .append("            return size;\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Decodes a model into a fixture, replacing all its stored values.",
+            "@param index The index of the model.",
+            "@param fixture The fixture to decode into.",
+            "@return The given fixture.")
+        .append("        public ").append(fixtureClassName).append(" load(final int index, final ")
+        .append(fixtureClassName).append(" fixture) {\n")
+        .append("            java.util.Objects.checkIndex(index, size);\n")
+        .append("            final java.nio.ByteBuffer in =\n")
+        .append("                buffer.duplicate().position(buffer.getInt(HEADER_SIZE + 4 * index));\n");
+    if (!spec.recordModel()) {
+      out.append("            fixture.model = fixture.ownModel;\n");
+    }
+    for (final FieldSpec field : fields) {
+      out.append(decode(field, valueAccess(spec, field)));
+    }
+    for (int word = 0; word < spec.overrideWordCount(); word++) {
+      out.append("            fixture.").append(fieldGenerator.overrideWord(word)).append(" = -1L;\n");
+    }
+    out.append("            return fixture;\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Decodes a model into a new fixture.",
+            "@param index The index of the model.",
+            "@return A new fixture holding the stored values.")
+        .append("        public ").append(fixtureClassName).append(" fixture(final int index) {\n")
+        .append("            return load(index, new ").append(fixtureClassName).append("());\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Builds the entity of a model, through a fixture of the arena of the current thread.",
+            "@param index The index of the model.",
+            "@return The built entity.")
+        .append("        public ").append(spec.entitySimpleName()).append(" build(final int index) {\n")
+        .append("            final FixtureArena arena = FixtureArena.current();\n")
+        .append("            final ").append(fixtureClassName).append(" fixture = arena.acquire();\n")
+        .append("            try {\n")
+        .append("                return load(index, fixture).build();\n")
+        .append("            } finally {\n")
+        .append("                arena.release(fixture);\n")
+        .append("            }\n")
+        .append("        }\n\n")
+        .append("        private static String getString(final java.nio.ByteBuffer in) {\n")
+        .append("            final int length = in.getInt();\n")
+        .append("            if (length < 0) {\n")
+        .append("                return null;\n")
+        .append("            }\n")
+        .append("            final byte[] bytes = new byte[length];\n")
+        .append("            in.get(bytes);\n")
+        .append("            return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);\n")
+        .append("        }\n\n");
+  }
+
+  private void generateEncoder(final SourceEmitter out) {
+    out.append("        private static final class SnapshotEncoder {\n\n")
+        .append("            private final java.nio.channels.FileChannel channel;\n")
+        .append("            private final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocateDirect(1 << 16);\n")
+        .append("            private long position;\n\n")
+        .append("            SnapshotEncoder(final java.nio.channels.FileChannel channel, final long position) {\n")
+        .append("                this.channel = channel;\n")
+        .append("                this.position = position;\n")
+        .append("            }\n\n")
+        .append("            int offset() {\n")
+        .append("                final long offset = position + buffer.position();\n")
+        .append("                if (offset > Integer.MAX_VALUE) {\n")
+        .append("                    throw new IllegalStateException(\"A snapshot cannot exceed 2 GB\");\n")
+        .append("                }\n")
+        .append("                return (int) offset;\n")
+        .append("            }\n\n")
+        .append("            java.nio.ByteBuffer reserve(final int length) throws java.io.IOException {\n")
+        .append("                if (buffer.remaining() < length) {\n")
+        .append("                    flush();\n")
+        .append("                }\n")
+        .append("                return buffer;\n")
+        .append("            }\n\n")
+        .append("            boolean putPresence(final Object value) throws java.io.IOException {\n")
+        .append("                reserve(1).put((byte) (value == null ? 0 : 1));\n")
+        .append("                return value != null;\n")
+        .append("            }\n\n")
+        .append("            void putString(final String value) throws java.io.IOException {\n")
+        .append("                if (value == null) {\n")
+        .append("                    reserve(4).putInt(-1);\n")
+        .append("                    return;\n")
+        .append("                }\n")
+        .append("                final byte[] bytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);\n")
+        .append("                reserve(4).putInt(bytes.length);\n")
+        .append("                int offset = 0;\n")
+        .append("                while (offset < bytes.length) {\n")
+        .append("                    final int chunk = Math.min(bytes.length - offset, reserve(1).remaining());\n")
+        .append("                    buffer.put(bytes, offset, chunk);\n")
+        .append("                    offset += chunk;\n")
+        .append("                }\n")
+        .append("            }\n\n")
+        .append("            void flush() throws java.io.IOException {\n")
+        .append("                buffer.flip();\n")
+        .append("                while (buffer.hasRemaining()) {\n")
+        .append("                    position += channel.write(buffer, position);\n")
+        .append("                }\n")
+        .append("                buffer.clear();\n")
+        .append("            }\n")
+        .append("        }\n");
+  }
+
+  private String valueAccess(final FixtureSpec spec, final FieldSpec field) {
+    return "fixture." + (spec.recordModel() ? "" : "model.") + field.name();
+  }
+
+  /**
+   * Returns the statement encoding the value of a field.
+   *
+   * @param field The snapshot of the field.
+   * @param value The expression reading the value.
+   * @return The encoding statement.
+   */
+  private String encode(final FieldSpec field, final String value) {
+    if (field.enumType()) {
+      return "encoder.putString(" + value + " == null ? null : " + value + ".name());";
+    }
+    return switch (field.type()) {
+      case "boolean" -> "encoder.reserve(1).put((byte) (" + value + " ? 1 : 0));";
+      case "byte" -> "encoder.reserve(1).put(" + value + ");";
+      case "short" -> "encoder.reserve(2).putShort(" + value + ");";
+      case "char" -> "encoder.reserve(2).putChar(" + value + ");";
+      case "int" -> "encoder.reserve(4).putInt(" + value + ");";
+      case "long" -> "encoder.reserve(8).putLong(" + value + ");";
+      case "float" -> "encoder.reserve(4).putFloat(" + value + ");";
+      case "double" -> "encoder.reserve(8).putDouble(" + value + ");";
+      case "java.lang.Boolean" -> presentThen(value, "encoder.reserve(1).put((byte) (" + value + " ? 1 : 0));");
+      case "java.lang.Byte" -> presentThen(value, "encoder.reserve(1).put(" + value + ");");
+      case "java.lang.Short" -> presentThen(value, "encoder.reserve(2).putShort(" + value + ");");
+      case "java.lang.Character" -> presentThen(value, "encoder.reserve(2).putChar(" + value + ");");
+      case "java.lang.Integer" -> presentThen(value, "encoder.reserve(4).putInt(" + value + ");");
+      case "java.lang.Long" -> presentThen(value, "encoder.reserve(8).putLong(" + value + ");");
+      case "java.lang.Float" -> presentThen(value, "encoder.reserve(4).putFloat(" + value + ");");
+      case "java.lang.Double" -> presentThen(value, "encoder.reserve(8).putDouble(" + value + ");");
+      case "java.lang.String" -> "encoder.putString(" + value + ");";
+      case "java.time.LocalDate" -> presentThen(value, "encoder.reserve(8).putLong(" + value + ".toEpochDay());");
+      case "java.time.LocalTime" -> presentThen(value, "encoder.reserve(8).putLong(" + value + ".toNanoOfDay());");
+      case "java.time.LocalDateTime" -> presentThen(value, "encoder.reserve(12).putLong(" + value
+          + ".toEpochSecond(java.time.ZoneOffset.UTC)).putInt(" + value + ".getNano());");
+      case "java.time.Instant" -> presentThen(value, "encoder.reserve(12).putLong(" + value
+          + ".getEpochSecond()).putInt(" + value + ".getNano());");
+      case "java.util.UUID" -> presentThen(value, "encoder.reserve(16).putLong(" + value
+          + ".getMostSignificantBits()).putLong(" + value + ".getLeastSignificantBits());");
+      default -> "encoder.putString(" + value + " == null ? null : " + value + ".toString());";
+    };
+  }
+
+  private String presentThen(final String value, final String statement) {
+    return "if (encoder.putPresence(" + value + ")) {\n"
+        + "                            " + statement + "\n"
+        + "                        }";
+  }
+
+  /**
+   * Returns the statements decoding the value of a field, in the order it was encoded.
+   *
+   * @param field  The snapshot of the field.
+   * @param target The expression assigned with the value.
+   * @return The decoding statements.
+   */
+  private String decode(final FieldSpec field, final String target) {
+    if (field.enumType()) {
+      return parsed(target, field.type() + ".valueOf(text)");
+    }
+    final String value = switch (field.type()) {
+      case "boolean" -> "in.get() != 0";
+      case "byte" -> "in.get()";
+      case "short" -> "in.getShort()";
+      case "char" -> "in.getChar()";
+      case "int" -> "in.getInt()";
+      case "long" -> "in.getLong()";
+      case "float" -> "in.getFloat()";
+      case "double" -> "in.getDouble()";
+      case "java.lang.Boolean" -> "in.get() == 0 ? null : (Boolean) (in.get() != 0)";
+      case "java.lang.Byte" -> "in.get() == 0 ? null : (Byte) in.get()";
+      case "java.lang.Short" -> "in.get() == 0 ? null : (Short) in.getShort()";
+      case "java.lang.Character" -> "in.get() == 0 ? null : (Character) in.getChar()";
+      case "java.lang.Integer" -> "in.get() == 0 ? null : (Integer) in.getInt()";
+      case "java.lang.Long" -> "in.get() == 0 ? null : (Long) in.getLong()";
+      case "java.lang.Float" -> "in.get() == 0 ? null : (Float) in.getFloat()";
+      case "java.lang.Double" -> "in.get() == 0 ? null : (Double) in.getDouble()";
+      case "java.lang.String" -> "getString(in)";
+      case "java.time.LocalDate" -> "in.get() == 0 ? null : java.time.LocalDate.ofEpochDay(in.getLong())";
+      case "java.time.LocalTime" -> "in.get() == 0 ? null : java.time.LocalTime.ofNanoOfDay(in.getLong())";
+      case "java.time.LocalDateTime" -> "in.get() == 0 ? null\n"
+          + "                : java.time.LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(),\n"
+          + "                    java.time.ZoneOffset.UTC)";
+      case "java.time.Instant" -> "in.get() == 0 ? null : java.time.Instant.ofEpochSecond(in.getLong(), in.getInt())";
+      case "java.util.UUID" -> "in.get() == 0 ? null : new java.util.UUID(in.getLong(), in.getLong())";
+      default -> null;
+    };
+    if (value == null) {
+      return parsed(target, "new " + field.type() + "(text)");
+    }
+    return "            " + target + " = " + value + ";\n";
+  }
+
+  private String parsed(final String target, final String parse) {
+    return "            {\n"
+        + "                final String text = getString(in);\n"
+        + "                " + target + " = text == null ? null : " + parse + ";\n"
+        + "            }\n";
+  }
+
+  /**
+   * Computes a 64-bit FNV-1a hash of the names and types of the stored fields, identifying the layout.
+   *
+   * @param fields The fields stored in the snapshot.
+   * @return The fingerprint of the layout.
+   */
+  private long fingerprint(final List<FieldSpec> fields) {
+    long hash = 0xcbf29ce484222325L;
+    for (final FieldSpec field : fields) {
+      for (final byte value : (field.name() + ":" + field.type() + ";").getBytes(StandardCharsets.UTF_8)) {
+        hash = (hash ^ (value & 0xFF)) * 0x100000001b3L;
+      }
+    }
+    return hash;
+  }
+}
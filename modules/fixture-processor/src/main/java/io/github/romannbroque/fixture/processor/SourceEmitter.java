@@ -0,0 +1,148 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Emits generated source code section by section into its destination.
+ *
+ * <p>
+ * Sources are rendered into a {@link StringBuilder}, so that a failed rendering never reaches the generated file,
+ * then copied into a buffered {@link java.io.Writer} opened on the generated file.
+ *
+ * <p>
+ * Generators emit their Javadoc comments through {@link #javadoc}, which a compact emitter skips.
+ */
+final class SourceEmitter {
+
+  private static final Pattern DECLARATION_START = Pattern.compile(
+      "((?:(?:public|protected|private|static|final|abstract|synchronized|native|default)\\s+)*)"
+          + "(?:<[^=]*>\\s+)?(?:([\\w.$]+(?:<[^=]*>)?(?:\\[])*)\\s+)?[\\w$]+\\s*");
+  private static final Set<String> NOT_TYPES =
+      Set.of("return", "throw", "new", "else", "case", "yield", "assert", "class", "interface", "enum", "record");
+
+  private final Appendable out;
+  private final boolean compact;
+  private long bytes;
+
+  /**
+   * Constructs an emitter writing into the given destination.
+   *
+   * @param out The destination of the generated code.
+   */
+  SourceEmitter(final Appendable out) {
+    this(out, false);
+  }
+
+  /**
+   * Constructs an emitter writing into the given destination.
+   *
+   * @param out     The destination of the generated code.
+   * @param compact Whether the Javadoc comments are dropped.
+   */
+  SourceEmitter(final Appendable out, final boolean compact) {
+    this.out = out;
+    this.compact = compact;
+  }
+
+  /**
+   * Appends a section of generated code.
+   *
+   * @param code The code to append.
+   * @return This emitter, for chaining.
+   * @throws UncheckedIOException if the destination cannot be written.
+   */
+  SourceEmitter append(final String code) {
+    try {
+      out.append(code);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    bytes += utf8Length(code);
+    return this;
+  }
+
+  /**
+   * Appends a Javadoc comment, unless the emitter is compact.
+   *
+   * @param indent The indentation of the comment.
+   * @param lines  The lines of the comment, without their leading {@code *}.
+   * @return This emitter, for chaining.
+   * @throws UncheckedIOException if the destination cannot be written.
+   */
+  SourceEmitter javadoc(final String indent, final String... lines) {
+    if (compact) {
+      return this;
+    }
+    append(indent).append("/**\n");
+    for (final String line : lines) {
+      append(indent).append(line.isEmpty() ? " *\n" : " * " + line + "\n");
+    }
+    return append(indent).append(" */\n");
+  }
+
+  /**
+   * Returns the number of bytes emitted so far, once encoded in UTF-8.
+   *
+   * @return The number of emitted bytes.
+   */
+  long bytesEmitted() {
+    return bytes;
+  }
+
+  /**
+   * Counts the methods and constructors declared in a generated source, those of nested types included.
+   * The generators declare a method on a line of its own, starting with its modifiers or return type, so a line
+   * counts as a declaration when the text before its first parenthesis is a list of modifiers, type parameters and
+   * a return type followed by a name. Statements and calls do not match: they start with a keyword, hold an
+   * assignment or a qualified name, or have neither modifiers nor a type.
+   *
+   * @param source The generated source.
+   * @return The number of declared methods and constructors.
+   */
+  static int countMethods(final String source) {
+    int count = 0;
+    int lineStart = 0;
+    while (lineStart < source.length()) {
+      int lineEnd = source.indexOf('\n', lineStart);
+      if (lineEnd < 0) {
+        lineEnd = source.length();
+      }
+      final int parenthesis = source.indexOf('(', lineStart);
+      if (parenthesis >= 0 && parenthesis < lineEnd && isDeclarationStart(source.substring(lineStart, parenthesis))) {
+        count++;
+      }
+      lineStart = lineEnd + 1;
+    }
+    return count;
+  }
+
+  private static boolean isDeclarationStart(final String text) {
+    final String trimmed = text.stripLeading();
+    if (trimmed.isEmpty() || !Character.isJavaIdentifierStart(trimmed.charAt(0))) {
+      return false;
+    }
+    final Matcher matcher = DECLARATION_START.matcher(trimmed);
+    if (!matcher.matches()) {
+      return false;
+    }
+    final String type = matcher.group(2);
+    return type == null ? !matcher.group(1).isEmpty() : !NOT_TYPES.contains(type);
+  }
+
+  private static int utf8Length(final CharSequence code) {
+    int length = code.length();
+    for (int i = 0; i < code.length(); i++) {
+      final char c = code.charAt(i);
+      if (c >= 0x800 && !Character.isSurrogate(c)) {
+        length += 2;
+      } else if (c >= 0x80) {
+        length++;
+      }
+    }
+    return length;
+  }
+}
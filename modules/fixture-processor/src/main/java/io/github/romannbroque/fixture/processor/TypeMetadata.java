@@ -0,0 +1,54 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.List;
+import java.util.Set;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+
+/**
+ * Record holding the metadata resolved once for a dataset, data model or entity type.
+ *
+ * @param element            The resolved type element.
+ * @param fields             The fields declared by the type, in declaration order.
+ * @param nestedTypes        The member types declared by the type, in declaration order.
+ * @param staticNoArgMethods The names of the accessible static methods without parameters, inherited ones included.
+ * @param staticMethods      The names of all the accessible static methods, inherited ones included.
+ */
+record TypeMetadata(TypeElement element, List<VariableElement> fields, List<TypeElement> nestedTypes,
+                    Set<String> staticNoArgMethods, Set<String> staticMethods) {
+
+  /**
+   * Checks whether the type exposes an accessible static method with the given name and no parameters.
+   *
+   * @param methodName The method name.
+   * @return {@code true} if such a method exists.
+   */
+  boolean hasStaticNoArgMethod(final String methodName) {
+    return staticNoArgMethods.contains(methodName);
+  }
+
+  /**
+   * Checks whether the type exposes an accessible static method with the given name, whatever its parameters.
+   *
+   * @param methodName The method name.
+   * @return {@code true} if such a method exists.
+   */
+  boolean hasStaticMethod(final String methodName) {
+    return staticMethods.contains(methodName);
+  }
+
+  /**
+   * Finds a member type by its simple name.
+   *
+   * @param simpleName The simple name of the member type.
+   * @return The member type, or {@code null} if there is none.
+   */
+  TypeElement findNestedType(final String simpleName) {
+    for (final TypeElement nestedType : nestedTypes) {
+      if (nestedType.getSimpleName().contentEquals(simpleName)) {
+        return nestedType;
+      }
+    }
+    return null;
+  }
+}
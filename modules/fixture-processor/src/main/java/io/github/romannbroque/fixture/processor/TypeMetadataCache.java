@@ -0,0 +1,81 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+/**
+ * Per-compilation cache of the type metadata read through the {@code javax.lang.model} API.
+ *
+ * <p>
+ * Datasets, data models and entities are resolved once and then shared by every generation step, which avoids
+ * walking the same elements repeatedly when many datasets reference the same types.
+ * Only resolved types are cached: a type that cannot be found yet may still be generated in a later round.
+ */
+final class TypeMetadataCache {
+
+  private final Elements elementUtils;
+  private final Map<String, TypeMetadata> metadataByName = new HashMap<>();
+
+  /**
+   * Constructs the cache with the provided processing environment.
+   *
+   * @param processingEnv The processing environment provided by the annotation processor.
+   */
+  TypeMetadataCache(final ProcessingEnvironment processingEnv) {
+    this.elementUtils = processingEnv.getElementUtils();
+  }
+
+  /**
+   * Returns the metadata of the given type element, resolving it on first access.
+   *
+   * @param typeElement The type element.
+   * @return The cached metadata of the type.
+   */
+  TypeMetadata get(final TypeElement typeElement) {
+    return metadataByName.computeIfAbsent(typeElement.getQualifiedName().toString(), name -> resolve(typeElement));
+  }
+
+  /**
+   * Returns the metadata of the type with the given canonical name, resolving it on first access.
+   *
+   * @param canonicalName The canonical name of the type.
+   * @return The cached metadata of the type, or {@code null} if the type cannot be found.
+   */
+  TypeMetadata find(final String canonicalName) {
+    final TypeMetadata cached = metadataByName.get(canonicalName);
+    if (cached != null) {
+      return cached;
+    }
+    final TypeElement typeElement = elementUtils.getTypeElement(canonicalName);
+    return typeElement == null ? null : get(typeElement);
+  }
+
+  private TypeMetadata resolve(final TypeElement typeElement) {
+    final Set<String> staticNoArgMethods = new HashSet<>();
+    final Set<String> staticMethods = new HashSet<>();
+    for (final ExecutableElement method : ElementFilter.methodsIn(elementUtils.getAllMembers(typeElement))) {
+      if (method.getModifiers().contains(Modifier.STATIC)
+          && !method.getModifiers().contains(Modifier.PRIVATE)) {
+        staticMethods.add(method.getSimpleName().toString());
+        if (method.getParameters().isEmpty()) {
+          staticNoArgMethods.add(method.getSimpleName().toString());
+        }
+      }
+    }
+    return new TypeMetadata(
+        typeElement,
+        List.copyOf(ElementFilter.fieldsIn(typeElement.getEnclosedElements())),
+        List.copyOf(ElementFilter.typesIn(typeElement.getEnclosedElements())),
+        Set.copyOf(staticNoArgMethods),
+        Set.copyOf(staticMethods));
+  }
+}
@@ -0,0 +1,391 @@
+package io.github.romannbroque.fixture.processor;
+
+import java.util.List;
+
+/**
+ * Code generator responsible for producing the {@code variants()} API of a fixture: a space of fixture variants
+ * combining candidate values declared per field, enumerated lazily as a stream.
+ *
+ * <p>
+ * The full cartesian product is never materialized: each variant index is decoded into one candidate per field when
+ * the stream reaches it, and the underlying spliterator splits its index range for parallel streams. The n-wise
+ * reduction computes a covering array of candidate indexes with the IPOG strategy, which is far smaller than the
+ * product, then builds the fixtures of its rows lazily as well.
+ */
+class VariantsGenerator {
+
+  private final StringUtils stringUtils;
+
+  VariantsGenerator(final StringUtils stringUtils) {
+    this.stringUtils = stringUtils;
+  }
+
+  /**
+   * Generates the {@code variants()} factory and the {@code FixtureVariants} nested class of the fixture.
+   *
+   * @param out  The emitter used to write the generated code.
+   * @param spec The spec of the generated fixture.
+   */
+  void generateVariants(final SourceEmitter out, final FixtureSpec spec) {
+    final List<FieldSpec> fields = spec.fields();
+    out.javadoc("    ",
+            "Starts a space of fixture variants, combining candidate values declared per field.",
+            "@return A new variant space, without candidates.")
+        .append("    public static FixtureVariants variants() {\n")
+        .append("        return new FixtureVariants();\n")
+        .append("    }\n\n")
+        .javadoc("    ",
+            "Space of fixture variants, combining the candidate values declared per field. Fields without",
+            "candidates keep their default values. Variants are enumerated lazily: each fixture is built",
+            "when the stream reaches it, so large spaces can be streamed, in parallel too.")
+        .append("    public static final class FixtureVariants {\n\n");
+    for (final FieldSpec field : fields) {
+      out.append("        private ").append(field.type()).append("[] ").append(field.name()).append("Candidates;\n");
+    }
+    out.append("\n")
+        .append("        private FixtureVariants() {\n")
+        .append("        }\n\n");
+    for (final FieldSpec field : fields) {
+      generateCandidates(out, field);
+    }
+    generateStreams(out, spec);
+    generateFieldDispatch(out, spec);
+    generateVariantSpliterator(out, spec);
+    generateCoveringRows(out);
+    out.append("    }\n\n");
+  }
+
+  private void generateCandidates(final SourceEmitter out, final FieldSpec field) {
+    out.javadoc("        ",
+            "Declares the candidate values of the {@code " + field.name() + "} field.",
+            "@param values The candidate values, at least one.",
+            "@return This variant space.");
+    if (field.type().contains("<")) {
+      // the candidates are only read, so keeping the varargs array cannot pollute the heap
+      out.append("        @SafeVarargs\n")
+          .append("        @SuppressWarnings(\"varargs\")\n")
+          .append("        public final FixtureVariants with");
+    } else {
+      out.append("        public FixtureVariants with");
+    }
+    out.append(stringUtils.capitalize(field.name())).append("(final ").append(field.type()).append("... values) {\n")
+        .append("            if (values.length == 0) {\n")
+        .append("                throw new IllegalArgumentException(\"No candidate value for ").append(field.name())
+        .append("\");\n")
+        .append("            }\n")
+        .append("            ").append(field.name()).append("Candidates = values.clone();\n")
+        .append("            return this;\n")
+        .append("        }\n\n");
+  }
+
+  private void generateStreams(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.javadoc("        ",
+            "Returns the number of variants of the full cartesian product.",
+            "@return The product of the numbers of candidates of the varied fields.",
+            "@throws ArithmeticException If the number of variants overflows a long.")
+        .append("        public long size() {\n")
+        .append("            long size = 1;\n")
+        .append("            for (final int fieldId : variedFieldIds()) {\n")
+        .append("                size = Math.multiplyExact(size, candidateCount(fieldId));\n")
+        .append("            }\n")
+        .append("            return size;\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Streams the full cartesian product of the candidates, the last field varying fastest.",
+            "@return A lazy, splittable stream of new fixtures.")
+        .append("        public java.util.stream.Stream<").append(fixtureClassName).append("> all() {\n")
+        .append("            final int[] fieldIds = variedFieldIds();\n")
+        .append("            return java.util.stream.StreamSupport.stream(\n")
+        .append("                new VariantSpliterator(this, fieldIds, null, 0, size()), false);\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Streams variants covering every pair of candidates of any two fields.",
+            "@return A lazy, splittable stream of new fixtures.")
+        .append("        public java.util.stream.Stream<").append(fixtureClassName).append("> pairwise() {\n")
+        .append("            return nWise(2);\n")
+        .append("        }\n\n")
+        .javadoc("        ",
+            "Streams variants covering every combination of candidates of any {@code strength}",
+            "fields. Only the candidate indexes of the covering rows are computed up front.",
+            "@param strength The number of fields whose combinations are all covered.",
+            "@return A lazy, splittable stream of new fixtures.")
+        .append("        public java.util.stream.Stream<").append(fixtureClassName)
+        .append("> nWise(final int strength) {\n")
+        .append("            if (strength < 1) {\n")
+        .append("                throw new IllegalArgumentException(\"The strength must be at least 1: \"\n")
+        .append("                    + strength);\n")
+        .append("            }\n")
+        .append("            final int[] fieldIds = variedFieldIds();\n")
+        .append("            if (strength >= fieldIds.length) {\n")
+        .append("                return all();\n")
+        .append("            }\n")
+        .append("            final int[] radices = new int[fieldIds.length];\n")
+        .append("            for (int dimension = 0; dimension < fieldIds.length; dimension++) {\n")
+        .append("                radices[dimension] = candidateCount(fieldIds[dimension]);\n")
+        .append("            }\n")
+        .append("            final int[][] rows = coveringRows(radices, strength);\n")
+        .append("            return java.util.stream.StreamSupport.stream(\n")
+        .append("                new VariantSpliterator(this, fieldIds, rows, 0, rows.length), false);\n")
+        .append("        }\n\n");
+  }
+
+  /**
+   * Generates the methods mapping a field identifier, its index in the data model, to its candidates.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  private void generateFieldDispatch(final SourceEmitter out, final FixtureSpec spec) {
+    final List<FieldSpec> fields = spec.fields();
+    out.append("        private int[] variedFieldIds() {\n")
+        .append("            final int[] fieldIds = new int[").append(String.valueOf(fields.size())).append("];\n")
+        .append("            int count = 0;\n");
+    for (int fieldId = 0; fieldId < fields.size(); fieldId++) {
+      out.append("            if (").append(fields.get(fieldId).name()).append("Candidates != null) {\n")
+          .append("                fieldIds[count++] = ").append(String.valueOf(fieldId)).append(";\n")
+          .append("            }\n");
+    }
+    out.append("            return java.util.Arrays.copyOf(fieldIds, count);\n")
+        .append("        }\n\n")
+        .append("        private int candidateCount(final int fieldId) {\n")
+        .append("            return switch (fieldId) {\n");
+    for (int fieldId = 0; fieldId < fields.size(); fieldId++) {
+      out.append("                case ").append(String.valueOf(fieldId)).append(" -> ")
+          .append(fields.get(fieldId).name()).append("Candidates.length;\n");
+    }
+    out.append("                default -> throw new IllegalStateException(\"Unknown field: \" + fieldId);\n")
+        .append("            };\n")
+        .append("        }\n\n")
+        .append("        private void apply(final ").append(spec.fixtureClassName())
+        .append(" fixture, final int fieldId, final int candidate) {\n")
+        .append("            switch (fieldId) {\n");
+    for (int fieldId = 0; fieldId < fields.size(); fieldId++) {
+      final FieldSpec field = fields.get(fieldId);
+      out.append("                case ").append(String.valueOf(fieldId)).append(" -> fixture.with")
+          .append(stringUtils.capitalize(field.name())).append("(").append(field.name())
+          .append("Candidates[candidate]);\n");
+    }
+    out.append("                default -> throw new IllegalStateException(\"Unknown field: \" + fieldId);\n")
+        .append("            }\n")
+        .append("        }\n\n");
+  }
+
+  /**
+   * Generates the spliterator over a range of variant indexes. An index is decoded either as a mixed-radix number,
+   * one digit per varied field, or as a row of the covering array.
+   *
+   * @param out  The emitter to write into.
+   * @param spec The spec of the generated fixture.
+   */
+  private void generateVariantSpliterator(final SourceEmitter out, final FixtureSpec spec) {
+    final String fixtureClassName = spec.fixtureClassName();
+    out.append("        private static final class VariantSpliterator implements java.util.Spliterator<")
+        .append(fixtureClassName).append("> {\n\n")
+        .append("            private final FixtureVariants variants;\n")
+        .append("            private final int[] fieldIds;\n")
+        .append("            private final int[][] rows;\n")
+        .append("            private final long fence;\n")
+        .append("            private long index;\n\n")
+        .append("            VariantSpliterator(final FixtureVariants variants, final int[] fieldIds,\n")
+        .append("                    final int[][] rows, final long index, final long fence) {\n")
+        .append("                this.variants = variants;\n")
+        .append("                this.fieldIds = fieldIds;\n")
+        .append("                this.rows = rows;\n")
+        .append("                this.index = index;\n")
+        .append("                this.fence = fence;\n")
+        .append("            }\n\n")
+        .append("            @Override\n")
+        .append("            public boolean tryAdvance(final java.util.function.Consumer<? super ")
+        .append(fixtureClassName).append("> action) {\n")
+        .append("                if (index >= fence) {\n")
+        .append("                    return false;\n")
+        .append("                }\n")
+        .append("                action.accept(variant(index++));\n")
+        .append("                return true;\n")
+        .append("            }\n\n")
+        .append("            @Override\n")
+        .append("            public java.util.Spliterator<").append(fixtureClassName).append("> trySplit() {\n")
+        .append("                final long middle = (index + fence) >>> 1;\n")
+        .append("                if (middle <= index) {\n")
+        .append("                    return null;\n")
+        .append("                }\n")
+        .append("                final VariantSpliterator prefix =\n")
+        .append("                    new VariantSpliterator(variants, fieldIds, rows, index, middle);\n")
+        .append("                index = middle;\n")
+        .append("                return prefix;\n")
+        .append("            }\n\n")
+        .append("            @Override\n")
+        .append("            public long estimateSize() {\n")
+        .append("                return fence - index;\n")
+        .append("            }\n\n")
+        .append("            @Override\n")
+        .append("            public int characteristics() {\n")
+        .append("                return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;\n")
+        .append("            }\n\n")
+        .append("            private ").append(fixtureClassName).append(" variant(final long variantIndex) {\n")
+        .append("                final ").append(fixtureClassName).append(" fixture = new ").append(fixtureClassName)
+        .append("();\n")
+        .append("                long remaining = variantIndex;\n")
+        .append("                for (int dimension = fieldIds.length - 1; dimension >= 0; dimension--) {\n")
+        .append("                    final int candidate;\n")
+        .append("                    if (rows != null) {\n")
+        .append("                        candidate = rows[(int) variantIndex][dimension];\n")
+        .append("                    } else {\n")
+        .append("                        final int count = variants.candidateCount(fieldIds[dimension]);\n")
+        .append("                        candidate = (int) (remaining % count);\n")
+        .append("                        remaining /= count;\n")
+        .append("                    }\n")
+        .append("                    variants.apply(fixture, fieldIds[dimension], candidate);\n")
+        .append("                }\n")
+        .append("                return fixture;\n")
+        .append("            }\n")
+        .append("        }\n\n");
+  }
+
+  /**
+   * Generates the IPOG construction of a covering array: rows of candidate indexes such that every combination of
+   * candidates of any {@code strength} fields appears in at least one row. The rows start as every combination of the
+   * first {@code strength} fields, then grow field by field: horizontally, by giving each row the candidate covering
+   * the most missing combinations, then vertically, by completing or adding rows for the combinations still missing.
+   *
+   * @param out The emitter to write into.
+   */
+  private void generateCoveringRows(final SourceEmitter out) {
+    out.append("        private static int[][] coveringRows(final int[] radices, final int strength) {\n")
+        .append("            final java.util.List<int[]> rows = new java.util.ArrayList<>();\n")
+        .append("            final int[] digits = new int[strength];\n")
+        .append("            do {\n")
+        .append("                final int[] row = new int[radices.length];\n")
+        .append("                java.util.Arrays.fill(row, -1);\n")
+        .append("                System.arraycopy(digits, 0, row, 0, strength);\n")
+        .append("                rows.add(row);\n")
+        .append("            } while (nextDigits(digits, radices));\n")
+        .append("            for (int dimension = strength; dimension < radices.length; dimension++) {\n")
+        .append("                final java.util.Set<java.util.List<Integer>> uncovered =\n")
+        .append("                    new java.util.LinkedHashSet<>();\n")
+        .append("                final int[] params = firstCombination(strength - 1);\n")
+        .append("                do {\n")
+        .append("                    final int[] values = new int[strength];\n")
+        .append("                    final int[] paramRadices = new int[strength];\n")
+        .append("                    for (int index = 0; index < params.length; index++) {\n")
+        .append("                        paramRadices[index] = radices[params[index]];\n")
+        .append("                    }\n")
+        .append("                    paramRadices[strength - 1] = radices[dimension];\n")
+        .append("                    do {\n")
+        .append("                        uncovered.add(tupleKey(params, values));\n")
+        .append("                    } while (nextDigits(values, paramRadices));\n")
+        .append("                } while (nextCombination(params, dimension));\n")
+        .append("                for (final int[] row : rows) {\n")
+        .append("                    int best = 0;\n")
+        .append("                    int bestCount = -1;\n")
+        .append("                    for (int value = 0; value < radices[dimension]; value++) {\n")
+        .append("                        row[dimension] = value;\n")
+        .append("                        final int count =\n")
+        .append("                            coveredTuples(row, dimension, strength, uncovered, false);\n")
+        .append("                        if (count > bestCount) {\n")
+        .append("                            best = value;\n")
+        .append("                            bestCount = count;\n")
+        .append("                        }\n")
+        .append("                    }\n")
+        .append("                    row[dimension] = best;\n")
+        .append("                    coveredTuples(row, dimension, strength, uncovered, true);\n")
+        .append("                }\n")
+        .append("                for (final java.util.List<Integer> tuple : uncovered) {\n")
+        .append("                    int[] target = null;\n")
+        .append("                    for (final int[] row : rows) {\n")
+        .append("                        if (matches(row, tuple, dimension)) {\n")
+        .append("                            target = row;\n")
+        .append("                            break;\n")
+        .append("                        }\n")
+        .append("                    }\n")
+        .append("                    if (target == null) {\n")
+        .append("                        target = new int[radices.length];\n")
+        .append("                        java.util.Arrays.fill(target, -1);\n")
+        .append("                        rows.add(target);\n")
+        .append("                    }\n")
+        .append("                    final int size = tuple.size() / 2;\n")
+        .append("                    for (int index = 0; index < size; index++) {\n")
+        .append("                        target[tuple.get(index)] = tuple.get(size + index);\n")
+        .append("                    }\n")
+        .append("                    target[dimension] = tuple.get(tuple.size() - 1);\n")
+        .append("                }\n")
+        .append("            }\n")
+        .append("            for (final int[] row : rows) {\n")
+        .append("                for (int index = 0; index < row.length; index++) {\n")
+        .append("                    row[index] = Math.max(row[index], 0);\n")
+        .append("                }\n")
+        .append("            }\n")
+        .append("            return rows.toArray(new int[0][]);\n")
+        .append("        }\n\n")
+        .append("        private static int coveredTuples(final int[] row, final int dimension, final int strength,\n")
+        .append("                final java.util.Set<java.util.List<Integer>> uncovered, final boolean remove) {\n")
+        .append("            int count = 0;\n")
+        .append("            final int[] params = firstCombination(strength - 1);\n")
+        .append("            final int[] values = new int[strength];\n")
+        .append("            do {\n")
+        .append("                boolean assigned = true;\n")
+        .append("                for (int index = 0; index < params.length; index++) {\n")
+        .append("                    values[index] = row[params[index]];\n")
+        .append("                    assigned &= values[index] >= 0;\n")
+        .append("                }\n")
+        .append("                values[strength - 1] = row[dimension];\n")
+        .append("                final java.util.List<Integer> tuple = tupleKey(params, values);\n")
+        .append("                if (assigned && (remove ? uncovered.remove(tuple) : uncovered.contains(tuple))) {\n")
+        .append("                    count++;\n")
+        .append("                }\n")
+        .append("            } while (nextCombination(params, dimension));\n")
+        .append("            return count;\n")
+        .append("        }\n\n")
+        .append("        private static java.util.List<Integer> tupleKey(final int[] params, final int[] values) {\n")
+        .append("            final Integer[] key = new Integer[params.length + values.length];\n")
+        .append("            for (int index = 0; index < params.length; index++) {\n")
+        .append("                key[index] = params[index];\n")
+        .append("            }\n")
+        .append("            for (int index = 0; index < values.length; index++) {\n")
+        .append("                key[params.length + index] = values[index];\n")
+        .append("            }\n")
+        .append("            return java.util.Arrays.asList(key);\n")
+        .append("        }\n\n")
+        .append("        private static boolean matches(final int[] row, final java.util.List<Integer> tuple,\n")
+        .append("                final int dimension) {\n")
+        .append("            final int size = tuple.size() / 2;\n")
+        .append("            for (int index = 0; index <= size; index++) {\n")
+        .append("                final int param = index < size ? tuple.get(index) : dimension;\n")
+        .append("                final int value = tuple.get(size + index);\n")
+        .append("                if (row[param] != -1 && row[param] != value) {\n")
+        .append("                    return false;\n")
+        .append("                }\n")
+        .append("            }\n")
+        .append("            return true;\n")
+        .append("        }\n\n")
+        .append("        private static int[] firstCombination(final int size) {\n")
+        .append("            final int[] combination = new int[size];\n")
+        .append("            for (int index = 0; index < size; index++) {\n")
+        .append("                combination[index] = index;\n")
+        .append("            }\n")
+        .append("            return combination;\n")
+        .append("        }\n\n")
+        .append("        private static boolean nextCombination(final int[] combination, final int bound) {\n")
+        .append("            for (int index = combination.length - 1; index >= 0; index--) {\n")
+        .append("                if (combination[index] < bound - combination.length + index) {\n")
+        .append("                    combination[index]++;\n")
+        .append("                    for (int next = index + 1; next < combination.length; next++) {\n")
+        .append("                        combination[next] = combination[next - 1] + 1;\n")
+        .append("                    }\n")
+        .append("                    return true;\n")
+        .append("                }\n")
+        .append("            }\n")
+        .append("            return false;\n")
+        .append("        }\n\n")
+        .append("        private static boolean nextDigits(final int[] digits, final int[] radices) {\n")
+        .append("            for (int index = digits.length - 1; index >= 0; index--) {\n")
+        .append("                if (++digits[index] < radices[index]) {\n")
+        .append("                    return true;\n")
+        .append("                }\n")
+        .append("                digits[index] = 0;\n")
+        .append("            }\n")
+        .append("            return false;\n")
+        .append("        }\n");
+  }
+}
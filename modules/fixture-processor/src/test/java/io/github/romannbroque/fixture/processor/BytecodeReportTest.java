@@ -0,0 +1,50 @@
+package io.github.romannbroque.fixture.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+
+class BytecodeReportTest {
+
+  @Test
+  void fillsInTheClassFilesOfEachFixtureFromTheClassOutput() throws IOException {
+    final Path dir = Files.createTempDirectory("bytecode-report");
+    final Path source = Files.writeString(dir.resolve("UserFixture.java"), """
+        package demo;
+
+        public class UserFixture {
+            public static UserFixture defaultFixture() {
+                return new UserFixture();
+            }
+
+            static final class Arena {
+            }
+        }
+        """);
+    final Path classes = Files.createDirectories(dir.resolve("classes"));
+    assertEquals(0, ToolProvider.getSystemJavaCompiler()
+        .run(null, null, null, "-d", classes.toString(), source.toString()));
+    final Path report = Files.writeString(dir.resolve("stats.json"), """
+        {"dataSet": "demo.UserDataSet", "fixture": "demo.UserFixture", "fields": 1, "classFiles": null, \
+        "bytecodeBytes": null, "bytecodeMethods": null, "writeNanos": 5}
+        {"dataSet": "demo.OrderDataSet", "fixture": "demo.OrderFixture", "fields": 1, "classFiles": null, \
+        "bytecodeBytes": null, "bytecodeMethods": null, "writeNanos": 5}
+        """);
+
+    BytecodeReport.main(new String[] {report.toString(), classes.toString()});
+
+    final long bytecodeBytes = Files.size(classes.resolve("demo/UserFixture.class"))
+        + Files.size(classes.resolve("demo/UserFixture$Arena.class"));
+    assertEquals("""
+        {"dataSet": "demo.UserDataSet", "fixture": "demo.UserFixture", "fields": 1, "classFiles": 2, \
+        "bytecodeBytes": %d, "bytecodeMethods": 3, "writeNanos": 5}
+        {"dataSet": "demo.OrderDataSet", "fixture": "demo.OrderFixture", "fields": 1, "classFiles": null, \
+        "bytecodeBytes": null, "bytecodeMethods": null, "writeNanos": 5}
+        """.formatted(bytecodeBytes), Files.readString(report, StandardCharsets.UTF_8));
+  }
+}
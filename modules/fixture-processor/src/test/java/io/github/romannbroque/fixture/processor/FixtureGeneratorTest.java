@@ -0,0 +1,48 @@
+package io.github.romannbroque.fixture.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FixtureGeneratorTest {
+
+  private final FixtureGenerator generator = new FixtureGenerator(new StringUtils());
+
+  @Test
+  void countsTheMethodsDeclaredInTheRenderedSource() {
+    final String source = render(spec(false));
+
+    // defaultFixture, withModel, useModel, getModel, buildDefault, build, withName, withoutName, getName, withAge,
+    // getAge, buildMany, fillInto, stream, parallelStream, SeededCustomizer.accept, reset, the arena constructor,
+    // current, acquire, release, the spliterator constructor, tryAdvance, forEachRemaining, trySplit, estimateSize,
+    // characteristics, buildNext and seedFor.
+    assertEquals(29, SourceEmitter.countMethods(source));
+  }
+
+  @Test
+  void compactFixturesHaveNoJavadocNorStaticBulkMethods() {
+    final String source = render(spec(true));
+
+    assertFalse(source.contains("/**"), source);
+    // The 29 methods of the full fixture, without buildMany, fillInto, stream, parallelStream, accept and the 8
+    // methods of the spliterator.
+    assertEquals(16, SourceEmitter.countMethods(source));
+  }
+
+  private String render(final FixtureSpec spec) {
+    final StringBuilder buffer = new StringBuilder();
+    generator.generateFixture(spec, new SourceEmitter(buffer, spec.compact()), new FixtureStats("demo.UserDataSet"));
+    return buffer.toString();
+  }
+
+  private static FixtureSpec spec(final boolean compact) {
+    final List<FieldSpec> fields = List.of(
+        new FieldSpec("name", "java.lang.String", false, false, true, true, false, -1, null, null),
+        new FieldSpec("age", "int", true, false, true, true, false, -1, null, null));
+    return new FixtureSpec("demo", "UserFixture", "demo.User", "User", "demo.UserDataSet.DataModel", "DataModel",
+        "UserDataSet", "demo.UserDataSet", false, false, false, false, false, false, false, false, false, true, true,
+        compact, List.of(), fields);
+  }
+}
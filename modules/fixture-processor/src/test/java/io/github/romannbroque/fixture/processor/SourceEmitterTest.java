@@ -0,0 +1,64 @@
+package io.github.romannbroque.fixture.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SourceEmitterTest {
+
+  @Test
+  void countsDeclarationsButNotNestedTypesNorStatements() {
+    final String source = """
+        public class UserFixture {
+
+            private static final ThreadLocal<long[]> BLOCK = ThreadLocal.withInitial(() -> new long[2]);
+
+            public static <C extends java.util.Collection<? super User>> C fillInto(final C target,
+                    final int count) {
+                if (target instanceof java.util.ArrayList<?> list) {
+                    list.ensureCapacity(count);
+                }
+                for (int index = 0; index < count; index++) {
+                    target.add(build());
+                }
+                return target;
+            }
+
+            @FunctionalInterface
+            public interface SeededCustomizer {
+                void accept(UserFixture fixture, long index);
+            }
+
+            public static final class RowWriter {
+                private RowWriter(final int size) {
+                    super();
+                }
+
+                private static byte[] utf8(final String text) {
+                    return text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                }
+            }
+        }
+        """;
+
+    assertEquals(4, SourceEmitter.countMethods(source));
+  }
+
+  @Test
+  void dropsJavadocWhenCompact() {
+    final StringBuilder full = new StringBuilder();
+    final StringBuilder compact = new StringBuilder();
+
+    new SourceEmitter(full).javadoc("    ", "Builds the entity.", "@return The entity.").append("    void build();\n");
+    new SourceEmitter(compact, true).javadoc("    ", "Builds the entity.").append("    void build();\n");
+
+    assertEquals("""
+            /**
+             * Builds the entity.
+             * @return The entity.
+             */
+            void build();
+        """, full.toString());
+    assertEquals("    void build();\n", compact.toString());
+  }
+}
@@ -0,0 +1,25 @@
+package io.github.romannbroque.fixture.runtime;
+
+import java.util.List;
+
+/**
+ * Receives the batches of entities produced by a {@link FixturePipeline}, such as a repository {@code saveAll} or a
+ * JDBC batch insert.
+ *
+ * <p>
+ * Batches are handed over from several virtual threads at once, so implementations must be thread-safe.
+ * </p>
+ *
+ * @param <E> The type of the entities.
+ */
+@FunctionalInterface
+public interface BatchSink<E> {
+
+  /**
+   * Consumes a batch of entities.
+   *
+   * @param batch The entities of the batch, in stream order. The list is owned by the sink and never reused.
+   * @throws Exception if the batch could not be consumed, which stops the pipeline.
+   */
+  void accept(List<E> batch) throws Exception;
+}
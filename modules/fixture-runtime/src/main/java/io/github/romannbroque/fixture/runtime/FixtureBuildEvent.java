@@ -0,0 +1,42 @@
+package io.github.romannbroque.fixture.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event emitted around the {@code build()} method of the fixtures generated with {@code -Afixture.jfr=true}.
+ * Its duration covers the lazy defaults and the {@code build(model)} method of the DataSet.
+ */
+@Name("io.github.romannbroque.fixture.Build")
+@Label("Fixture Build")
+@Category("Fixtures")
+@Threshold("1 ms")
+@Description("Builds an entity from a generated fixture")
+public final class FixtureBuildEvent extends Event {
+
+  @Label("Fixture Class")
+  private Class<?> fixtureClass;
+
+  @Label("Overridden Fields")
+  @Description("Number of fields set through the with and without methods since the fixture was created or reset")
+  private int overriddenFields;
+
+  /**
+   * Ends the timing of the event and commits it if it passes the recording settings.
+   *
+   * @param fixtureClass     The generated fixture class.
+   * @param overriddenFields The number of fields set through the fixture.
+   */
+  public void complete(final Class<?> fixtureClass, final int overriddenFields) {
+    end();
+    if (shouldCommit()) {
+      this.fixtureClass = fixtureClass;
+      this.overriddenFields = overriddenFields;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package io.github.romannbroque.fixture.runtime;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Record linking an entity class to its data model and generated fixture, through method references of the fixture.
+ *
+ * @param entityClass    The entity class.
+ * @param dataModelClass The data model class of the DataSet.
+ * @param fixtureClass   The generated fixture class.
+ * @param defaultFixture The {@code defaultFixture()} factory of the fixture.
+ * @param withModel      The {@code withModel(model)} factory of the fixture.
+ * @param build          The {@code build()} method of the fixture.
+ * @param <T>            The type of the entity.
+ * @param <M>            The type of the data model.
+ * @param <F>            The type of the fixture.
+ */
+public record FixtureEntry<T, M, F>(Class<T> entityClass, Class<M> dataModelClass, Class<F> fixtureClass,
+                                    Supplier<F> defaultFixture, Function<M, F> withModel, Function<F, T> build) {
+
+  /**
+   * Builds a new entity with the default values of the DataSet.
+   *
+   * @return A new entity.
+   */
+  public T buildDefault() {
+    return build.apply(defaultFixture.get());
+  }
+
+  /**
+   * Builds a new entity from a data model.
+   *
+   * @param model The data model.
+   * @return A new entity.
+   */
+  public T build(final M model) {
+    return build.apply(withModel.apply(model));
+  }
+}
@@ -0,0 +1,42 @@
+package io.github.romannbroque.fixture.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event emitted around the {@code defaultFixture()} and {@code invalidFixture()} factories of the fixtures
+ * generated with {@code -Afixture.jfr=true}. Its duration covers the {@code buildValid()} or {@code buildInvalid()}
+ * method of the DataSet.
+ */
+@Name("io.github.romannbroque.fixture.Factory")
+@Label("Fixture Factory")
+@Category("Fixtures")
+@Threshold("1 ms")
+@Description("Creates a generated fixture from the default or invalid model of its DataSet")
+public final class FixtureFactoryEvent extends Event {
+
+  @Label("Fixture Class")
+  private Class<?> fixtureClass;
+
+  @Label("Factory")
+  private String factory;
+
+  /**
+   * Ends the timing of the event and commits it if it passes the recording settings.
+   *
+   * @param fixtureClass The generated fixture class.
+   * @param factory      The name of the factory method.
+   */
+  public void complete(final Class<?> fixtureClass, final String factory) {
+    end();
+    if (shouldCommit()) {
+      this.fixtureClass = fixtureClass;
+      this.factory = factory;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package io.github.romannbroque.fixture.runtime;
+
+/**
+ * Service provider interface of the fixture indexes generated with {@code -Afixture.registry=<class name>}, one per
+ * compilation, and registered in {@code META-INF/services} for {@link Fixtures}.
+ *
+ * <p>
+ * A generated index switches on the entity class name, so that a lookup is constant time and only links the classes
+ * of the fixture it returns.
+ * </p>
+ */
+public interface FixtureIndex {
+
+  /**
+   * Finds the fixture generated for an entity.
+   *
+   * @param entityClassName The canonical name of the entity class.
+   * @return The fixture entry of the entity, or {@code null} if this index holds no fixture for it.
+   */
+  FixtureEntry<?, ?, ?> find(String entityClassName);
+}
@@ -0,0 +1,156 @@
+package io.github.romannbroque.fixture.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Groups a stream of entities, such as the one returned by a generated {@code *Fixture.stream(...)}, into batches
+ * handed to a {@link BatchSink} on virtual threads.
+ *
+ * <p>
+ * The stream is drawn on the calling thread. At most {@code maxInFlightBatches} batches are consumed at once: when
+ * they are all in flight, drawing the next batch waits for one of them to complete, so at most
+ * {@code (maxInFlightBatches + 1) * batchSize} entities are held in memory whatever the size of the stream.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and can be shared: each {@code with*} method returns a new pipeline.
+ * </p>
+ */
+public final class FixturePipeline {
+
+  private static final int DEFAULT_BATCH_SIZE = 1_000;
+  private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
+  private final int batchSize;
+  private final int maxInFlightBatches;
+
+  private FixturePipeline(final int batchSize, final int maxInFlightBatches) {
+    this.batchSize = batchSize;
+    this.maxInFlightBatches = maxInFlightBatches;
+  }
+
+  /**
+   * Creates a pipeline with batches of {@value #DEFAULT_BATCH_SIZE} entities and at most
+   * {@value #DEFAULT_MAX_IN_FLIGHT_BATCHES} batches in flight.
+   *
+   * @return A new pipeline.
+   */
+  public static FixturePipeline create() {
+    return new FixturePipeline(DEFAULT_BATCH_SIZE, DEFAULT_MAX_IN_FLIGHT_BATCHES);
+  }
+
+  /**
+   * Returns a pipeline grouping the entities into batches of the given size. The last batch may be smaller.
+   *
+   * @param batchSize The number of entities per batch.
+   * @return A new pipeline.
+   * @throws IllegalArgumentException if the size is not positive.
+   */
+  public FixturePipeline withBatchSize(final int batchSize) {
+    return new FixturePipeline(requirePositive(batchSize, "batch size"), maxInFlightBatches);
+  }
+
+  /**
+   * Returns a pipeline consuming at most the given number of batches at once.
+   *
+   * @param maxInFlightBatches The maximum number of batches handed to the sink and not yet consumed.
+   * @return A new pipeline.
+   * @throws IllegalArgumentException if the number is not positive.
+   */
+  public FixturePipeline withMaxInFlightBatches(final int maxInFlightBatches) {
+    return new FixturePipeline(batchSize, requirePositive(maxInFlightBatches, "number of in-flight batches"));
+  }
+
+  /**
+   * Returns the number of entities per batch.
+   *
+   * @return The batch size.
+   */
+  public int batchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the maximum number of batches consumed at once.
+   *
+   * @return The maximum number of in-flight batches.
+   */
+  public int maxInFlightBatches() {
+    return maxInFlightBatches;
+  }
+
+  /**
+   * Draws all the entities of the stream and hands them to the sink in batches, then closes the stream.
+   *
+   * <p>
+   * The first batch the sink fails to consume stops the pipeline: no further entity is drawn, the batches in flight
+   * complete, then the failure is rethrown.
+   * </p>
+   *
+   * @param entities The entities to consume, drawn in order on the calling thread.
+   * @param sink     The sink consuming the batches, called from virtual threads.
+   * @param <E>      The type of the entities.
+   * @return The number of rows and batches consumed, and the elapsed time.
+   * @throws IllegalStateException if the sink failed to consume a batch, or if the calling thread was interrupted.
+   */
+  public <E> PipelineReport run(final Stream<? extends E> entities, final BatchSink<E> sink) {
+    final Semaphore inFlight = new Semaphore(maxInFlightBatches);
+    final AtomicReference<BatchFailure> failure = new AtomicReference<>();
+    final LongAdder rows = new LongAdder();
+    final LongAdder batches = new LongAdder();
+    final long start = System.nanoTime();
+    long batchIndex = 0L;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor(); entities) {
+      final Iterator<? extends E> iterator = entities.iterator();
+      List<E> batch = new ArrayList<>(batchSize);
+      while (failure.get() == null && iterator.hasNext()) {
+        batch.add(iterator.next());
+        if (batch.size() == batchSize || !iterator.hasNext()) {
+          inFlight.acquire();
+          final List<E> handed = batch;
+          final long index = batchIndex++;
+          executor.execute(() -> {
+            try {
+              sink.accept(handed);
+              rows.add(handed.size());
+              batches.increment();
+            } catch (final Throwable e) {
+              failure.compareAndSet(null, new BatchFailure(index, e));
+            } finally {
+              inFlight.release();
+            }
+          });
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for an in-flight batch.", e);
+    }
+    final BatchFailure failed = failure.get();
+    if (failed != null) {
+      throw new IllegalStateException("The batch sink failed to consume batch " + failed.index() + ".",
+          failed.cause());
+    }
+    return new PipelineReport(rows.sum(), batches.sum(), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private static int requirePositive(final int value, final String name) {
+    if (value <= 0) {
+      throw new IllegalArgumentException("Invalid " + name + " " + value + ": a positive integer is expected.");
+    }
+    return value;
+  }
+
+  private record BatchFailure(long index, Throwable cause) {
+  }
+}
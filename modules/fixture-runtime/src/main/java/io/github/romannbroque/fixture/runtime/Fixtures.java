@@ -0,0 +1,75 @@
+package io.github.romannbroque.fixture.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up the generated fixture of an entity class in the {@link FixtureIndex} providers of the classpath, without
+ * reflection.
+ *
+ * <p>
+ * The indexes are loaded once, on first lookup, with the context class loader of the calling thread. Each entity
+ * class is then resolved once and cached in a {@link ClassValue}, so repeated lookups are constant time and only the
+ * fixtures actually looked up are linked.
+ * </p>
+ */
+public final class Fixtures {
+
+  private static final ClassValue<FixtureEntry<?, ?, ?>> ENTRIES = new ClassValue<>() {
+    @Override
+    protected FixtureEntry<?, ?, ?> computeValue(final Class<?> type) {
+      final String entityClassName = type.getCanonicalName();
+      if (entityClassName == null) {
+        return null;
+      }
+      for (final FixtureIndex index : Indexes.ALL) {
+        final FixtureEntry<?, ?, ?> entry = index.find(entityClassName);
+        if (entry != null && entry.entityClass() == type) {
+          return entry;
+        }
+      }
+      return null;
+    }
+  };
+
+  private Fixtures() {
+  }
+
+  /**
+   * Returns the fixture generated for an entity class.
+   *
+   * @param entityClass The entity class.
+   * @param <T>         The type of the entity.
+   * @return The fixture entry of the entity.
+   * @throws IllegalArgumentException if no index holds a fixture for the entity class.
+   */
+  public static <T> FixtureEntry<T, ?, ?> forEntity(final Class<T> entityClass) {
+    return find(entityClass).orElseThrow(() -> new IllegalArgumentException("No fixture registered for entity "
+        + entityClass.getName() + ": is its DataSet compiled with -Afixture.registry?"));
+  }
+
+  /**
+   * Finds the fixture generated for an entity class.
+   *
+   * @param entityClass The entity class.
+   * @param <T>         The type of the entity.
+   * @return The fixture entry of the entity, or an empty optional if no index holds a fixture for it.
+   */
+  @SuppressWarnings("unchecked") // the entity class of the entry is checked when it is resolved
+  public static <T> Optional<FixtureEntry<T, ?, ?>> find(final Class<T> entityClass) {
+    return Optional.ofNullable((FixtureEntry<T, ?, ?>) ENTRIES.get(entityClass));
+  }
+
+  private static final class Indexes {
+
+    private static final List<FixtureIndex> ALL = load();
+
+    private static List<FixtureIndex> load() {
+      final List<FixtureIndex> indexes = new ArrayList<>();
+      ServiceLoader.load(FixtureIndex.class).forEach(indexes::add);
+      return List.copyOf(indexes);
+    }
+  }
+}
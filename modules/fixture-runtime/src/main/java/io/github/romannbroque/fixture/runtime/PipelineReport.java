@@ -0,0 +1,29 @@
+package io.github.romannbroque.fixture.runtime;
+
+import java.time.Duration;
+
+/**
+ * Record holding the throughput of a completed {@link FixturePipeline} run.
+ *
+ * @param rows    The number of entities consumed by the sink.
+ * @param batches The number of batches consumed by the sink.
+ * @param elapsed The time from the first entity drawn from the stream to the last batch consumed.
+ */
+public record PipelineReport(long rows, long batches, Duration elapsed) {
+
+  /**
+   * Returns the average throughput of the run.
+   *
+   * @return The number of rows consumed per second, or {@code 0} if no time elapsed.
+   */
+  public double rowsPerSecond() {
+    final long nanos = elapsed.toNanos();
+    return nanos == 0L ? 0.0 : rows * 1_000_000_000.0 / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d rows in %d batches, %d ms (%.0f rows/s)", rows, batches, elapsed.toMillis(),
+        rowsPerSecond());
+  }
+}
@@ -0,0 +1,26 @@
+/**
+ * This package contains runtime helpers for the entities built by the generated fixtures.
+ *
+ * <p>Authors: Frédéric Foissey, Romann Broque</p>
+ *
+ * <p>
+ * The {@link io.github.romannbroque.fixture.runtime.FixturePipeline} groups a stream of entities into batches and
+ * hands them to a {@link io.github.romannbroque.fixture.runtime.BatchSink} on virtual threads, with a bounded number
+ * of batches in flight, to seed databases or message queues. The {@code InMemoryBatchSink} of the test fixtures of
+ * this module stands in for a real sink in tests.
+ * </p>
+ *
+ * <p>
+ * The {@link io.github.romannbroque.fixture.runtime.FixtureBuildEvent} and
+ * {@link io.github.romannbroque.fixture.runtime.FixtureFactoryEvent} JFR events are emitted by the fixtures generated
+ * with {@code -Afixture.jfr=true}.
+ * </p>
+ *
+ * <p>
+ * The {@link io.github.romannbroque.fixture.runtime.Fixtures} registry looks up the fixture of an entity class in the
+ * {@link io.github.romannbroque.fixture.runtime.FixtureIndex} providers generated with
+ * {@code -Afixture.registry=<class name>}.
+ * </p>
+ */
+
+package io.github.romannbroque.fixture.runtime;
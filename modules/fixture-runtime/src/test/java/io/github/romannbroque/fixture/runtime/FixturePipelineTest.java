@@ -0,0 +1,97 @@
+package io.github.romannbroque.fixture.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class FixturePipelineTest {
+
+  @Test
+  void groupsEntitiesIntoBatchesWithAShortLastBatch() {
+    final InMemoryBatchSink<Integer> sink = new InMemoryBatchSink<>();
+
+    FixturePipeline.create()
+        .withBatchSize(10)
+        .withMaxInFlightBatches(1)
+        .run(IntStream.range(0, 25).boxed(), sink);
+
+    assertEquals(List.of(10, 10, 5), sink.batches().stream().map(List::size).toList());
+    assertEquals(IntStream.range(0, 25).boxed().toList(), sink.rows());
+  }
+
+  @Test
+  void neverConsumesMoreBatchesAtOnceThanAllowed() {
+    final InMemoryBatchSink<Integer> sink = new InMemoryBatchSink<>(Duration.ofMillis(20));
+
+    FixturePipeline.create()
+        .withBatchSize(5)
+        .withMaxInFlightBatches(3)
+        .run(IntStream.range(0, 150).boxed(), sink);
+
+    assertTrue(sink.maxConcurrentBatches() <= 3, "peak of " + sink.maxConcurrentBatches() + " batches in flight");
+    assertTrue(sink.maxConcurrentBatches() > 1, "batches were consumed one at a time");
+    assertEquals(150, sink.rows().size());
+  }
+
+  @Test
+  void rethrowsTheFirstFailureAndStopsDrawing() {
+    final AtomicInteger drawn = new AtomicInteger();
+    final AtomicBoolean closed = new AtomicBoolean();
+    final Stream<Integer> entities = IntStream.range(0, 1_000).boxed()
+        .peek(entity -> drawn.incrementAndGet())
+        .onClose(() -> closed.set(true));
+    final RuntimeException cause = new RuntimeException("insert failed");
+
+    final IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> FixturePipeline.create()
+        .withBatchSize(10)
+        .withMaxInFlightBatches(1)
+        .run(entities, batch -> {
+          if (batch.get(0) == 20) {
+            throw cause;
+          }
+        }));
+
+    assertSame(cause, thrown.getCause());
+    assertTrue(thrown.getMessage().contains("batch 2"), thrown.getMessage());
+    assertTrue(drawn.get() <= 40, drawn.get() + " entities drawn after the failure");
+    assertTrue(closed.get(), "the stream was not closed");
+  }
+
+  @Test
+  void reportsTheConsumedRowsAndBatches() {
+    final PipelineReport report = FixturePipeline.create()
+        .withBatchSize(4)
+        .run(IntStream.range(0, 10).boxed(), new InMemoryBatchSink<>());
+
+    assertEquals(10L, report.rows());
+    assertEquals(3L, report.batches());
+  }
+
+  @Test
+  void reportsNothingForAnEmptyStream() {
+    final InMemoryBatchSink<Integer> sink = new InMemoryBatchSink<>();
+
+    final PipelineReport report = FixturePipeline.create().run(Stream.empty(), sink);
+
+    assertEquals(0L, report.rows());
+    assertEquals(0L, report.batches());
+    assertTrue(sink.batches().isEmpty());
+  }
+
+  @Test
+  void rejectsNonPositiveSettings() {
+    final FixturePipeline pipeline = FixturePipeline.create();
+
+    assertThrows(IllegalArgumentException.class, () -> pipeline.withBatchSize(0));
+    assertThrows(IllegalArgumentException.class, () -> pipeline.withMaxInFlightBatches(-1));
+  }
+}
@@ -0,0 +1,83 @@
+package io.github.romannbroque.fixture.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe {@link BatchSink} keeping the batches in memory, to stand in for a database in tests.
+ *
+ * <p>
+ * An optional latency is spent on each batch to mimic the round-trip of a real batch insert, so that tests can
+ * observe the throughput and the number of batches consumed at once.
+ * </p>
+ *
+ * @param <E> The type of the entities.
+ */
+public final class InMemoryBatchSink<E> implements BatchSink<E> {
+
+  private final Duration latency;
+  private final ConcurrentLinkedQueue<List<E>> batches = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger concurrentBatches = new AtomicInteger();
+  private final AtomicInteger maxConcurrentBatches = new AtomicInteger();
+
+  /**
+   * Creates a sink consuming each batch immediately.
+   */
+  public InMemoryBatchSink() {
+    this(Duration.ZERO);
+  }
+
+  /**
+   * Creates a sink spending the given latency on each batch.
+   *
+   * @param latency The time spent consuming each batch.
+   */
+  public InMemoryBatchSink(final Duration latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public void accept(final List<E> batch) throws InterruptedException {
+    maxConcurrentBatches.accumulateAndGet(concurrentBatches.incrementAndGet(), Math::max);
+    try {
+      if (!latency.isZero()) {
+        Thread.sleep(latency);
+      }
+      batches.add(batch);
+    } finally {
+      concurrentBatches.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the batches consumed so far, in completion order.
+   *
+   * @return A copy of the consumed batches.
+   */
+  public List<List<E>> batches() {
+    return List.copyOf(batches);
+  }
+
+  /**
+   * Returns the entities consumed so far, batch by batch in completion order.
+   *
+   * @return A copy of the consumed entities.
+   */
+  public List<E> rows() {
+    final List<E> rows = new ArrayList<>();
+    batches.forEach(rows::addAll);
+    return rows;
+  }
+
+  /**
+   * Returns the highest number of batches consumed at once so far.
+   *
+   * @return The peak number of concurrent batches.
+   */
+  public int maxConcurrentBatches() {
+    return maxConcurrentBatches.get();
+  }
+}